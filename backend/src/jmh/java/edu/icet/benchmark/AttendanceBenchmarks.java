@@ -0,0 +1,77 @@
+package edu.icet.benchmark;
+
+import edu.icet.dto.AttendanceChange;
+import edu.icet.service.AttendanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttendanceBenchmarks {
+
+    private AttendanceService attendanceService;
+    private int popularClassId;
+    private Date markDate;
+    private Map<Integer, Boolean> allPresent;
+    private Map<Integer, Boolean> allAbsent;
+    private int studentCount;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        attendanceService = state.bean(AttendanceService.class);
+        studentCount = state.dataset().students();
+
+        // Class 1 gets the most enrolments under the seeder's skew
+        popularClassId = 1;
+        markDate = Date.valueOf(state.dataset().sessionDate(state.dataset().sessions()));
+        List<Integer> roster = state.dataset().rosters().get(popularClassId);
+        allPresent = new HashMap<>();
+        allAbsent = new HashMap<>();
+        for (Integer studentId : roster) {
+            allPresent.put(studentId, true);
+            allAbsent.put(studentId, false);
+        }
+    }
+
+    // Flips every student on each call, so every row is rewritten
+    @Benchmark
+    public Map<Integer, AttendanceChange> markAttendanceFlipAll() {
+        return attendanceService.markAttendance(popularClassId, markDate, (invocation++ & 1) == 0 ? allPresent : allAbsent);
+    }
+
+    // Resubmits the same sheet, so nothing needs writing
+    @Benchmark
+    public Map<Integer, AttendanceChange> markAttendanceUnchanged() {
+        return attendanceService.markAttendance(popularClassId, markDate, allPresent);
+    }
+
+    @Benchmark
+    public Map<Integer, Double> percentagesForStudent() {
+        return attendanceService.getAttendancePercentageByClass(1 + (invocation++ % studentCount));
+    }
+
+    @Benchmark
+    public Map<Integer, Double> percentagesForClass() {
+        return attendanceService.getAttendancePercentagesForClass(popularClassId);
+    }
+}
@@ -0,0 +1,114 @@
+package edu.icet.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic benchmark fixture written straight over JDBC: students, classes with a skewed
+ * enrolment distribution, and one attendance row per enrolled student per session.
+ */
+public class BenchmarkDataSeeder {
+    private static final int BATCH_SIZE = 1000;
+    private static final LocalDate TERM_START = LocalDate.of(2024, 1, 8);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    public BenchmarkDataSeeder(JdbcTemplate jdbcTemplate, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    public Dataset seed(int studentCount, int classCount, int sessionCount) {
+        List<Object[]> students = new ArrayList<>(studentCount);
+        for (int id = 1; id <= studentCount; id++) {
+            students.add(new Object[]{id, "First" + id, "Last" + id, id + " Bench Street",
+                    Date.valueOf(LocalDate.of(2000, 1, 1).plusDays(random.nextInt(3650))),
+                    String.format("%09dV", id), String.format("07%08d", id)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                students, BATCH_SIZE, BenchmarkDataSeeder::setAll);
+
+        List<Object[]> classes = new ArrayList<>(classCount);
+        for (int id = 1; id <= classCount; id++) {
+            classes.add(new Object[]{id, "Class " + id, "Benchmark class " + id, "Mon, Wed 10:00-12:00",
+                    Date.valueOf(TERM_START), Date.valueOf(TERM_START.plusDays(120))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO class (id, name, description, schedule, start_date, end_date) VALUES (?, ?, ?, ?, ?, ?)",
+                classes, BATCH_SIZE, BenchmarkDataSeeder::setAll);
+
+        // Each student takes 3-6 classes, biased towards low class ids so a few classes are very popular
+        Map<Integer, List<Integer>> rosters = new HashMap<>();
+        List<Object[]> enrolments = new ArrayList<>();
+        for (int studentId = 1; studentId <= studentCount; studentId++) {
+            Set<Integer> picked = new LinkedHashSet<>();
+            int wanted = Math.min(classCount, 3 + random.nextInt(4));
+            while (picked.size() < wanted) {
+                double skewed = Math.pow(random.nextDouble(), 2);
+                picked.add(1 + (int) (skewed * classCount));
+            }
+            for (Integer classId : picked) {
+                rosters.computeIfAbsent(classId, id -> new ArrayList<>()).add(studentId);
+                enrolments.add(new Object[]{classId, studentId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO class_student (class_id, student_id) VALUES (?, ?)",
+                enrolments, BATCH_SIZE, BenchmarkDataSeeder::setAll);
+
+        int attendanceId = 0;
+        List<Object[]> attendance = new ArrayList<>(BATCH_SIZE);
+        for (Map.Entry<Integer, List<Integer>> roster : rosters.entrySet()) {
+            for (int session = 0; session < sessionCount; session++) {
+                Date date = Date.valueOf(TERM_START.plusDays(session * 2L));
+                for (Integer studentId : roster.getValue()) {
+                    attendance.add(new Object[]{++attendanceId, studentId, roster.getKey(), date, random.nextDouble() < 0.85});
+                    if (attendance.size() == BATCH_SIZE) {
+                        insertAttendance(attendance);
+                        attendance.clear();
+                    }
+                }
+            }
+        }
+        insertAttendance(attendance);
+
+        // Keep Hibernate's id sequences clear of the explicitly assigned ids
+        restartSequence("student_seq", studentCount);
+        restartSequence("class_seq", classCount);
+        restartSequence("attendance_seq", attendanceId);
+
+        return new Dataset(studentCount, classCount, sessionCount, rosters);
+    }
+
+    private void insertAttendance(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (?, ?, ?, ?, ?)",
+                    rows, BATCH_SIZE, BenchmarkDataSeeder::setAll);
+        }
+    }
+
+    // The pooled optimizer hands out ids (value - 49 .. value], so leave a full allocation of headroom
+    private void restartSequence(String sequence, int maxId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 51));
+    }
+
+    private static void setAll(java.sql.PreparedStatement ps, Object[] row) throws java.sql.SQLException {
+        for (int i = 0; i < row.length; i++) {
+            ps.setObject(i + 1, row[i]);
+        }
+    }
+
+    public record Dataset(int students, int classes, int sessions, Map<Integer, List<Integer>> rosters) {
+        public LocalDate sessionDate(int session) {
+            return TERM_START.plusDays(session * 2L);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.icet.benchmark;
+
+import edu.icet.Main;
+import edu.icet.repository.ClassRepository;
+import edu.icet.service.AttendanceSummaryService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+/**
+ * A Spring context on a fresh in-memory H2 database (MySQL mode), seeded once per trial.
+ * Sizes are JMH parameters, e.g. {@code -p students=50000 -p classes=2000}.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkState {
+
+    @Param({"2000"})
+    public int students;
+
+    @Param({"100"})
+    public int classes;
+
+    @Param({"30"})
+    public int sessions;
+
+    @Param({"42"})
+    public long seed;
+
+    private ConfigurableApplicationContext context;
+    private BenchmarkDataSeeder.Dataset dataset;
+
+    @Setup(Level.Trial)
+    public void start() {
+        String url = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE";
+        context = new SpringApplicationBuilder(Main.class)
+                .profiles("bench")
+                .web(WebApplicationType.NONE)
+                // Arguments rather than default properties, which the profile's own datasource url would override
+                .run("--spring.datasource.url=" + url, "--app.attendance.archive.enabled=false");
+
+        dataset = new BenchmarkDataSeeder(bean(JdbcTemplate.class), seed).seed(students, classes, sessions);
+        bean(ClassRepository.class).recountSeats();
+        bean(AttendanceSummaryService.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public BenchmarkDataSeeder.Dataset dataset() {
+        return dataset;
+    }
+}
@@ -0,0 +1,42 @@
+package edu.icet.benchmark;
+
+import edu.icet.dto.projection.ClassSummary;
+import edu.icet.service.ClassService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Slice;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassBenchmarks {
+
+    private ClassService classService;
+    private int studentCount;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        classService = state.bean(ClassService.class);
+        studentCount = state.dataset().students();
+    }
+
+    @Benchmark
+    public Slice<ClassSummary> findClassesNotEnrolledByStudent() {
+        return classService.findClassesNotEnrolledByStudent(1 + (invocation++ % studentCount), 0, 100);
+    }
+}
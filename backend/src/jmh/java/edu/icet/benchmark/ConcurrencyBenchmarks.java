@@ -0,0 +1,127 @@
+package edu.icet.benchmark;
+
+import edu.icet.Main;
+import edu.icet.service.AttendanceSummaryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Platform-thread Tomcat against the virtual-threads profile: each invocation fires a burst of
+ * {@code concurrency} simultaneous HTTP requests at the running server and waits for all of them.
+ * The client sends from virtual threads so it is never the bottleneck.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConcurrencyBenchmarks {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"400"})
+    public int concurrency;
+
+    @Param({"5000"})
+    public int students;
+
+    @Param({"200"})
+    public int classes;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private String baseUrl;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void start() {
+        String url = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE";
+        List<String> profiles = new ArrayList<>(List.of("bench"));
+        if ("virtual".equals(threads)) {
+            profiles.add("virtual-threads");
+        }
+        context = new SpringApplicationBuilder(Main.class)
+                .profiles(profiles.toArray(String[]::new))
+                .web(WebApplicationType.SERVLET)
+                // Arguments rather than default properties, which application.yml's port and the profile's url would override
+                .run("--spring.datasource.url=" + url, "--server.port=0");
+
+        new BenchmarkDataSeeder(context.getBean(JdbcTemplate.class), 42).seed(students, classes, 30);
+        context.getBean(AttendanceSummaryService.class).rebuild();
+
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder().executor(clientExecutor).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        clientExecutor.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int studentAttendancePercentages() {
+        return burst(i -> "/attendance/student/" + (1 + i % students) + "/percentage");
+    }
+
+    @Benchmark
+    public int classAttendancePercentages() {
+        return burst(i -> "/attendance/class/" + (1 + i % classes) + "/percentages");
+    }
+
+    @Benchmark
+    public int availableClasses() {
+        return burst(i -> "/classes/student/" + (1 + i % students) + "/available");
+    }
+
+    private int burst(IntFunction<String> path) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path.apply(invocation++))).GET().build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != concurrency) {
+            throw new IllegalStateException((concurrency - ok) + " of " + concurrency + " requests failed");
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,133 @@
+package edu.icet.benchmark;
+
+import edu.icet.dto.Class;
+import edu.icet.service.ClassRequestService;
+import edu.icet.service.ClassService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A registration rush: each invocation has {@code concurrency} students request a seat at the same
+ * moment, from virtual threads, in {@code spread} freshly created classes of {@code seats} seats each.
+ * With {@code spread=1} everyone fights over one class. Every burst is checked afterwards: exactly the
+ * seats on offer are taken, no class is oversubscribed, and the counters match the pending requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EnrolmentContentionBenchmarks {
+
+    @Param({"1000"})
+    public int concurrency;
+
+    @Param({"1", "16"})
+    public int spread;
+
+    @Param({"50"})
+    public int seats;
+
+    private ClassService classService;
+    private ClassRequestService classRequestService;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService executor;
+    private List<Integer> classIds;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        classService = state.bean(ClassService.class);
+        classRequestService = state.bean(ClassRequestService.class);
+        jdbcTemplate = state.bean(JdbcTemplate.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        int studentCount = state.dataset().students();
+        if (concurrency > studentCount) {
+            throw new IllegalArgumentException("concurrency must not exceed the " + studentCount + " seeded students");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        executor.close();
+    }
+
+    // Fresh classes every burst, so no student ever has a pending request for them yet
+    @Setup(Level.Invocation)
+    public void openClasses() {
+        classIds = new ArrayList<>(spread);
+        for (int i = 0; i < spread; i++) {
+            Class classObj = new Class();
+            classObj.setName("Rush " + i);
+            classObj.setSchedule("Mon 09:00-10:00");
+            classObj.setStartDate(new Date());
+            classObj.setMaxStudents(seats);
+            classIds.add(classService.createClass(classObj).getId());
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void verify() {
+        for (Integer classId : classIds) {
+            Integer taken = jdbcTemplate.queryForObject("SELECT seats_taken FROM class WHERE id = ?", Integer.class, classId);
+            Integer pending = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM class_request WHERE class_id = ? AND status = 'PENDING'", Integer.class, classId);
+            if (taken == null || taken > seats || !taken.equals(pending)) {
+                throw new IllegalStateException("Class " + classId + ": " + taken + " seats taken of " + seats + ", " + pending + " pending");
+            }
+        }
+    }
+
+    @Benchmark
+    public int rush() {
+        List<CompletableFuture<Boolean>> attempts = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            int studentId = 1 + i;
+            Integer classId = classIds.get(i % spread);
+            attempts.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    classRequestService.createRequest(studentId, classId);
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }, executor));
+        }
+
+        int granted = 0;
+        for (CompletableFuture<Boolean> attempt : attempts) {
+            if (attempt.join()) {
+                granted++;
+            }
+        }
+        int expected = 0;
+        for (int c = 0; c < spread; c++) {
+            int applicants = concurrency / spread + (c < concurrency % spread ? 1 : 0);
+            expected += Math.min(applicants, seats);
+        }
+        if (granted != expected) {
+            throw new IllegalStateException(granted + " seats granted, expected " + expected);
+        }
+        return granted;
+    }
+}
@@ -0,0 +1,79 @@
+package edu.icet.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.icet.dto.StudentPage;
+import edu.icet.dto.response.AttendanceResponse;
+import edu.icet.dto.response.ClassResponse;
+import edu.icet.dto.response.StudentResponse;
+import edu.icet.service.AttendanceService;
+import edu.icet.service.ClassService;
+import edu.icet.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning what the controllers return into JSON. The responses are loaded once up
+ * front so only serialization is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmarks {
+
+    private ObjectMapper objectMapper;
+    private List<ClassResponse> classes;
+    private List<StudentResponse> roster;
+    private List<AttendanceResponse> session;
+    private StudentPage studentPage;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        objectMapper = state.bean(ObjectMapper.class);
+
+        ClassService classService = state.bean(ClassService.class);
+        Date date = Date.valueOf(state.dataset().sessionDate(0));
+
+        classes = classService.findAllClasses();
+        roster = classService.getEnrolledStudents(1);
+        session = state.bean(AttendanceService.class).findAttendanceByClassAndDate(1, date);
+        studentPage = state.bean(StudentService.class).findStudentPage(0, 50, Set.of());
+    }
+
+    @Benchmark
+    public byte[] allClasses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(classes);
+    }
+
+    @Benchmark
+    public byte[] classRoster() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(roster);
+    }
+
+    @Benchmark
+    public byte[] attendanceSession() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(session);
+    }
+
+    @Benchmark
+    public byte[] studentPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(studentPage);
+    }
+}
@@ -0,0 +1,51 @@
+package edu.icet.benchmark;
+
+import edu.icet.dto.StudentPage;
+import edu.icet.dto.response.StudentResponse;
+import edu.icet.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentBenchmarks {
+
+    private StudentService studentService;
+    private int studentCount;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void prepare(BenchmarkState state) {
+        studentService = state.bean(StudentService.class);
+        studentCount = state.dataset().students();
+    }
+
+    @Benchmark
+    public List<StudentResponse> findAllStudents() {
+        return studentService.findAllStudents();
+    }
+
+    // A page from a varying position; should cost the same wherever the cursor is
+    @Benchmark
+    public StudentPage findStudentPage() {
+        int after = (invocation++ * 50) % studentCount;
+        return studentService.findStudentPage(after, 50, Set.of());
+    }
+}
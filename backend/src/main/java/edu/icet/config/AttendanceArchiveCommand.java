@@ -0,0 +1,29 @@
+package edu.icet.config;
+
+import edu.icet.dto.ArchiveReport;
+import edu.icet.service.AttendanceArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the attendance archive job once from the command line: {@code --attendance-archive}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttendanceArchiveCommand implements ApplicationRunner {
+    private static final String OPTION = "attendance-archive";
+
+    private final AttendanceArchiveService attendanceArchiveService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPTION)) {
+            ArchiveReport report = attendanceArchiveService.archiveEndedClasses();
+            log.info("Attendance archive run: {}", report);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package edu.icet.config;
+
+import edu.icet.service.AttendanceSummaryService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Makes sure uk_attendance_session exists, so a student has at most one attendance row per class and date
+ * and concurrent writers of the same session collide instead of both inserting. Duplicates written before
+ * the key are removed first, keeping the oldest row of each, and the attendance summary is rebuilt.
+ * Startup fails if the key still is not there.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class AttendanceSessionMigration {
+    private static final String TABLE = "attendance";
+    private static final String KEY = "uk_attendance_session";
+    private static final Set<String> KEY_COLUMNS = Set.of("class_id", "date", "student_id");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceSummaryService attendanceSummaryService;
+
+    @PostConstruct
+    public void migrate() {
+        if (UniqueKeys.exists(jdbcTemplate, TABLE, KEY_COLUMNS)) {
+            return;
+        }
+
+        List<Object[]> duplicates = jdbcTemplate.query(
+                "SELECT class_id, date, student_id, MIN(id) AS kept FROM attendance " +
+                        "GROUP BY class_id, date, student_id HAVING COUNT(*) > 1",
+                (rs, rowNum) -> new Object[]{rs.getInt("class_id"), rs.getDate("date"), rs.getInt("student_id"), rs.getInt("kept")});
+        int removed = 0;
+        for (Object[] session : duplicates) {
+            removed += jdbcTemplate.update("DELETE FROM attendance WHERE class_id = ? AND date = ? AND student_id = ? AND id <> ?",
+                    session[0], (Date) session[1], session[2], session[3]);
+        }
+        if (removed > 0) {
+            log.warn("Removed {} duplicate attendance rows", removed);
+            attendanceSummaryService.rebuild();
+        }
+
+        jdbcTemplate.execute("ALTER TABLE attendance ADD CONSTRAINT " + KEY + " UNIQUE (class_id, date, student_id)");
+        if (!UniqueKeys.exists(jdbcTemplate, TABLE, KEY_COLUMNS)) {
+            throw new IllegalStateException("Unique key " + KEY + " is missing from " + TABLE);
+        }
+        log.info("Added unique key {} to {}", KEY, TABLE);
+    }
+}
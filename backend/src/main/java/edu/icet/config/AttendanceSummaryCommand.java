@@ -0,0 +1,46 @@
+package edu.icet.config;
+
+import edu.icet.dto.SummaryVerification;
+import edu.icet.service.AttendanceSummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs the attendance summary maintenance jobs from the command line:
+ * {@code --attendance-summary=rebuild} or {@code --attendance-summary=verify}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttendanceSummaryCommand implements ApplicationRunner {
+    private static final String OPTION = "attendance-summary";
+
+    private final AttendanceSummaryService attendanceSummaryService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> values = args.getOptionValues(OPTION);
+        if (values == null) {
+            return;
+        }
+
+        for (String value : values) {
+            switch (value) {
+                case "rebuild" -> {
+                    SummaryVerification result = attendanceSummaryService.rebuild();
+                    log.info("Attendance summary rebuilt: {}", result);
+                }
+                case "verify" -> {
+                    SummaryVerification result = attendanceSummaryService.verify();
+                    log.info("Attendance summary verified: {}", result);
+                }
+                default -> throw new IllegalArgumentException("Unknown --" + OPTION + " value: " + value);
+            }
+        }
+    }
+}
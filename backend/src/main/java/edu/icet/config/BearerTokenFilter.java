@@ -0,0 +1,38 @@
+package edu.icet.config;
+
+import edu.icet.dto.AuthPrincipal;
+import edu.icet.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Verifies a {@code Bearer} access token, if the request carries one, and exposes the caller as the
+ * {@link AuthPrincipal#REQUEST_ATTRIBUTE} request attribute. Requests without a valid token carry on
+ * without a principal; endpoints that need one answer 401 themselves.
+ */
+@Component
+@RequiredArgsConstructor
+public class BearerTokenFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            tokenService.verify(header.substring(BEARER.length()).trim())
+                    .ifPresent(principal -> request.setAttribute(AuthPrincipal.REQUEST_ATTRIBUTE, principal));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,123 @@
+package edu.icet.config;
+
+import edu.icet.dto.Class;
+import edu.icet.dto.Student;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Second-level cache regions of the class/student catalog, with targeted eviction for writes
+ * Hibernate can't see (the inverse Student.classes side, and join-table writes issued directly).
+ */
+@Component
+public class CatalogCache {
+    public static final String CLASS_REGION = "catalog-class";
+    public static final String STUDENT_REGION = "catalog-student";
+    public static final String ENROLMENT_REGION = "catalog-enrolment";
+    public static final String QUERY_REGION = "catalog-queries";
+
+    private static final String CLASS_STUDENTS_ROLE = Class.class.getName() + ".students";
+    private static final String STUDENT_CLASSES_ROLE = Student.class.getName() + ".classes";
+
+    private final SessionFactory sessionFactory;
+
+    public CatalogCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public void evictClass(Integer classId) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Class.class, classId);
+        cache.evictCollectionData(CLASS_STUDENTS_ROLE, classId);
+        cache.evictQueryRegion(QUERY_REGION);
+    }
+
+    public void evictDeletedClass(Integer classId) {
+        evictClass(classId);
+        // Any student's cached class set may have held the deleted class
+        sessionFactory.getCache().evictCollectionData(STUDENT_CLASSES_ROLE);
+    }
+
+    /**
+     * Evicts the class, its roster and the students' class sets. Join-table writes issued directly bypass Hibernate's
+     * own cache locking, so when called inside a transaction the eviction is repeated after commit to drop
+     * anything a concurrent reader cached in between.
+     */
+    public void evictEnrolment(Integer classId, Collection<Integer> studentIds) {
+        List<Integer> ids = List.copyOf(studentIds);
+        evictNowAndAfterCommit(() -> {
+            Cache cache = sessionFactory.getCache();
+            cache.evictEntityData(Class.class, classId);
+            cache.evictCollectionData(CLASS_STUDENTS_ROLE, classId);
+            for (Integer studentId : ids) {
+                cache.evictCollectionData(STUDENT_CLASSES_ROLE, studentId);
+            }
+            cache.evictQueryRegion(QUERY_REGION);
+        });
+    }
+
+    /**
+     * Evicts the class after a direct write to its seat count, which moves its version too. Repeated after commit
+     * for the same reason as {@link #evictEnrolment}.
+     */
+    public void evictSeats(Integer classId) {
+        evictNowAndAfterCommit(() -> {
+            Cache cache = sessionFactory.getCache();
+            cache.evictEntityData(Class.class, classId);
+            cache.evictQueryRegion(QUERY_REGION);
+        });
+    }
+
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    // For bulk loads written straight to the tables
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    public Map<String, Object> statistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("secondLevelHits", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelMisses", statistics.getSecondLevelCacheMissCount());
+        result.put("secondLevelPuts", statistics.getSecondLevelCachePutCount());
+        result.put("queryHits", statistics.getQueryCacheHitCount());
+        result.put("queryMisses", statistics.getQueryCacheMissCount());
+        result.put("queryPuts", statistics.getQueryCachePutCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, Map.of(
+                        "hits", region.getHitCount(),
+                        "misses", region.getMissCount(),
+                        "puts", region.getPutCount(),
+                        "elements", region.getElementCountInMemory()));
+            }
+        }
+        result.put("regions", regions);
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+package edu.icet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the DataSource in a datasource-proxy so {@link SqlStatementCounter} sees every statement,
+ * and, with {@code app.db-admission.enabled}, in an {@link AdmissionControlledDataSource} first.
+ * Unwrapping still reaches the Hikari pool, so its metrics keep working.
+ */
+@Component
+public class DataSourceProxyPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<SqlStatementCounter> counter;
+    private final boolean admissionEnabled;
+    private final int admissionPermits;
+    private final Duration admissionTimeout;
+
+    public DataSourceProxyPostProcessor(ObjectProvider<SqlStatementCounter> counter,
+                                        @Value("${app.db-admission.enabled:false}") boolean admissionEnabled,
+                                        @Value("${app.db-admission.permits:0}") int admissionPermits,
+                                        @Value("${app.db-admission.timeout:10s}") Duration admissionTimeout) {
+        this.counter = counter;
+        this.admissionEnabled = admissionEnabled;
+        this.admissionPermits = admissionPermits;
+        this.admissionTimeout = admissionTimeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            if (admissionEnabled) {
+                dataSource = new AdmissionControlledDataSource(dataSource, permits(dataSource), admissionTimeout);
+            }
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(counter.getObject())
+                    .build();
+        }
+        return bean;
+    }
+
+    // Defaults to the pool size, so callers queue on the semaphore rather than inside the pool. Hikari only fills in
+    // its default size of 10 when the pool starts, so until then an unset size reads as -1
+    private int permits(DataSource dataSource) {
+        if (admissionPermits > 0) {
+            return admissionPermits;
+        }
+        if (dataSource instanceof HikariDataSource hikari && hikari.getMaximumPoolSize() > 0) {
+            return hikari.getMaximumPoolSize();
+        }
+        return 10;
+    }
+}
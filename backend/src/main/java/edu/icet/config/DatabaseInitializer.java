@@ -10,6 +10,7 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.lang.reflect.Field;
 import java.util.Date;
@@ -17,17 +18,20 @@ import java.util.HashSet;
 import java.util.Optional;
 
 @Configuration
-@Profile("!test")
+@Profile("!test & !bench")
 public class DatabaseInitializer {
     private final UserRepository userRepository;
     private final StudentRepository studentRepository;
     private final ClassRepository classRepository;
+    private final PasswordEncoder passwordEncoder;
 
     @Autowired
-    public DatabaseInitializer(UserRepository userRepository, StudentRepository studentRepository, ClassRepository classRepository) {
+    public DatabaseInitializer(UserRepository userRepository, StudentRepository studentRepository, ClassRepository classRepository,
+                               PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
         this.studentRepository = studentRepository;
         this.classRepository = classRepository;
+        this.passwordEncoder = passwordEncoder;
     }
 
     @PostConstruct
@@ -36,7 +40,7 @@ public class DatabaseInitializer {
         if (adminOptional.isEmpty()) {
             User admin = new User();
             admin.setUsername("admin");
-            admin.setPassword("admin123");
+            admin.setPassword(passwordEncoder.encode("admin123"));
             admin.setRole("ADMIN");
             userRepository.save(admin);
         }
@@ -82,7 +86,7 @@ public class DatabaseInitializer {
             // Create user account for student
             User user = new User();
             user.setUsername(id);
-            user.setPassword("student123");
+            user.setPassword(passwordEncoder.encode("student123"));
             user.setRole("STUDENT");
             user.setStudent(student);
             userRepository.save(user);
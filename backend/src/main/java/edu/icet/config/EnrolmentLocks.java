@@ -0,0 +1,60 @@
+package edu.icet.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fair in-process locks striped by class id, taken around the short transactions that claim a seat.
+ * The class row lock is what keeps the seat count right; these only make a rush on one class queue
+ * here, in arrival order, instead of as a pile of row-lock waiters each holding a pooled connection.
+ * Other classes stay unaffected unless they share a stripe. Threads waiting across all stripes are
+ * published as {@code enrolment.locks.waiting}.
+ */
+@Component
+public class EnrolmentLocks {
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public EnrolmentLocks(MeterRegistry meterRegistry,
+                          @Value("${app.enrolment.lock-stripes:64}") int stripeCount,
+                          @Value("${app.enrolment.lock-timeout:5s}") Duration timeout) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("enrolment.locks.waiting", this,
+                        locks -> Arrays.stream(locks.stripes).mapToInt(ReentrantLock::getQueueLength).sum())
+                .description("Threads waiting for an enrolment lock")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code work} holding the stripe of {@code classId}, waiting up to the configured timeout for it.
+     */
+    public <T> T withClassLock(Integer classId, Supplier<T> work) {
+        ReentrantLock lock = stripes[Math.floorMod(classId.hashCode(), stripes.length)];
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Timed out after " + timeoutMillis + " ms waiting for the lock of class " + classId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted waiting for the lock of class " + classId, e);
+        }
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
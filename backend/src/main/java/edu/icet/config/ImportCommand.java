@@ -0,0 +1,59 @@
+package edu.icet.config;
+
+import edu.icet.dto.ImportReport;
+import edu.icet.service.ImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Imports CSV files from the command line: {@code --import-classes=classes.csv},
+ * {@code --import-students=students.csv} and {@code --import-attendance=attendance.csv}.
+ * Classes and students are imported before attendance, whatever the argument order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImportCommand implements ApplicationRunner {
+    private final ImportService importService;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        for (String file : files(args, "import-classes")) {
+            try (Reader csv = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                report(file, importService.importClasses(csv));
+            }
+        }
+        for (String file : files(args, "import-students")) {
+            try (Reader csv = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                report(file, importService.importStudents(csv));
+            }
+        }
+        for (String file : files(args, "import-attendance")) {
+            try (Reader csv = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                report(file, importService.importAttendance(csv));
+            }
+        }
+    }
+
+    private static List<String> files(ApplicationArguments args, String option) {
+        List<String> values = args.getOptionValues(option);
+        return values != null ? values : List.of();
+    }
+
+    private static void report(String file, ImportReport report) {
+        log.info("Imported {}: {} of {} rows in {} ms ({} rows/s), {} rejected{}", file, report.imported(),
+                report.rowsRead(), report.elapsedMillis(), report.rowsPerSecond(), report.rejected(),
+                report.aborted() ? ", stopped early" : "");
+        report.errors().forEach(error -> log.warn("{} row {}: {}", file, error.row(), error.message()));
+    }
+}
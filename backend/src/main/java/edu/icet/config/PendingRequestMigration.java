@@ -0,0 +1,61 @@
+package edu.icet.config;
+
+import edu.icet.repository.ClassRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Makes sure uk_class_request_pending exists, which is what keeps a student to one pending request per
+ * class. Hibernate's schema update adds it with a plain ALTER that fails, and is only logged, while the
+ * table still holds duplicate pending requests from before the key. Those are resolved here first: the
+ * oldest request of each pair stays pending and the rest are rejected, then the key is added and seat
+ * counts recounted. Startup fails if the key still is not there.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class PendingRequestMigration {
+    private static final String TABLE = "class_request";
+    private static final String KEY = "uk_class_request_pending";
+    private static final Set<String> KEY_COLUMNS = Set.of("student_id", "class_id", "pending_lock");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClassRepository classRepository;
+    private final CatalogCache catalogCache;
+
+    @PostConstruct
+    public void migrate() {
+        if (UniqueKeys.exists(jdbcTemplate, TABLE, KEY_COLUMNS)) {
+            return;
+        }
+
+        List<Object[]> duplicates = jdbcTemplate.query(
+                "SELECT student_id, class_id, MIN(id) AS kept FROM class_request WHERE status = 'PENDING' " +
+                        "GROUP BY student_id, class_id HAVING COUNT(*) > 1",
+                (rs, rowNum) -> new Object[]{rs.getInt("student_id"), rs.getInt("class_id"), rs.getInt("kept")});
+        int rejected = 0;
+        for (Object[] pair : duplicates) {
+            rejected += jdbcTemplate.update("UPDATE class_request SET status = 'REJECTED', response_date = CURRENT_TIMESTAMP, " +
+                            "response_notes = ?, version = version + 1 " +
+                            "WHERE status = 'PENDING' AND student_id = ? AND class_id = ? AND id <> ?",
+                    "Duplicate of request " + pair[2], pair[0], pair[1], pair[2]);
+        }
+        if (rejected > 0) {
+            log.warn("Rejected {} duplicate pending class requests", rejected);
+            classRepository.recountSeats();
+            catalogCache.evictAll();
+        }
+
+        jdbcTemplate.execute("ALTER TABLE class_request ADD CONSTRAINT " + KEY + " UNIQUE (student_id, class_id, pending_lock)");
+        if (!UniqueKeys.exists(jdbcTemplate, TABLE, KEY_COLUMNS)) {
+            throw new IllegalStateException("Unique key " + KEY + " is missing from " + TABLE);
+        }
+        log.info("Added unique key {} to {}", KEY, TABLE);
+    }
+}
@@ -0,0 +1,66 @@
+package edu.icet.config;
+
+import edu.icet.service.PictureStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves pictures left in the legacy inline {@code profile_pic} column into the picture store,
+ * a few rows at a time so the blobs never all sit on the heap together.
+ */
+@Slf4j
+@Configuration
+@Profile("!test & !bench")
+@RequiredArgsConstructor
+public class ProfilePictureMigration {
+    private static final int PAGE_SIZE = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PictureStore pictureStore;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        int migrated = 0;
+        int lastId = 0;
+        try {
+            while (true) {
+                List<Integer> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM student WHERE id > ? AND profile_pic IS NOT NULL ORDER BY id LIMIT " + PAGE_SIZE,
+                        Integer.class, lastId);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Integer id : ids) {
+                    byte[] content = jdbcTemplate.queryForObject("SELECT profile_pic FROM student WHERE id = ?", byte[].class, id);
+                    if (content != null && content.length > 0) {
+                        String hash = pictureStore.put(content);
+                        jdbcTemplate.update("UPDATE student SET profile_pic_hash = ?, profile_pic = NULL WHERE id = ?", hash, id);
+                    } else {
+                        jdbcTemplate.update("UPDATE student SET profile_pic = NULL WHERE id = ?", id);
+                    }
+                    migrated++;
+                }
+                lastId = ids.get(ids.size() - 1);
+            }
+        } catch (BadSqlGrammarException e) {
+            // Fresh schema without the legacy column, nothing to migrate
+            return;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Profile picture migration failed", e);
+        }
+
+        if (migrated > 0) {
+            log.info("Moved {} profile pictures into the picture store", migrated);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package edu.icet.config;
+
+import edu.icet.repository.AttendanceBitmapIndex;
+import edu.icet.repository.ClassRepository;
+import edu.icet.repository.IdBlockAllocator;
+import edu.icet.service.AttendanceSummaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Loads a synthetic dataset at production-like volume for load and capacity testing: students with
+ * login accounts, classes with a skewed enrolment distribution, a full term of attendance for every
+ * scheduled session, and a backlog of class requests.
+ * <p>
+ * Active only under the {@code scale} profile. The output depends only on {@code app.scale.seed}
+ * and the sizes, whatever the thread count: every chunk draws from its own seeded generator.
+ * Rows are written over JDBC in batches from several threads, with ids reserved up front so
+ * Hibernate keeps generating ids past them.
+ */
+@Slf4j
+@Component
+@Profile("scale")
+public class ScaleDataGenerator {
+    private static final String[] FIRST_NAMES = {"Nimal", "Kasun", "Dilani", "Tharindu", "Sachini", "Ruwan", "Ishara",
+            "Chamara", "Nadeesha", "Pradeep", "Amaya", "Hasitha", "Sanduni", "Lahiru", "Kavindi", "Janith"};
+    private static final String[] LAST_NAMES = {"Perera", "Fernando", "Silva", "Jayasinghe", "Bandara", "Wickramasinghe",
+            "Gunawardena", "Rathnayake", "Dissanayake", "Herath", "Kumara", "Wijesinghe"};
+    private static final String[] TOWNS = {"Colombo", "Kandy", "Galle", "Negombo", "Kurunegala", "Matara", "Jaffna",
+            "Anuradhapura", "Panadura", "Gampaha"};
+    private static final String[] SUBJECTS = {"Web Development", "Java Programming", "Database Design",
+            "Mobile App Development", "Data Structures", "Computer Networks", "Cloud Computing", "UI/UX Design",
+            "Software Testing", "Machine Learning", "DevOps", "Cyber Security"};
+    private static final String[] SLOTS = {"08:00-10:00", "10:00-12:00", "13:00-15:00", "15:00-17:00", "18:00-20:00"};
+    private static final DayOfWeek[] WEEKDAYS = {DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY, DayOfWeek.FRIDAY};
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+    private final ClassRepository classRepository;
+    private final AttendanceSummaryService attendanceSummaryService;
+    private final AttendanceBitmapIndex attendanceBitmapIndex;
+    private final CatalogCache catalogCache;
+    private final TransactionTemplate chunkTransaction;
+
+    private final long seed;
+    private final int studentCount;
+    private final int classCount;
+    private final int requestCount;
+    private final LocalDate termStart;
+    private final int termWeeks;
+    private final int threads;
+    private final int batchSize;
+
+    public ScaleDataGenerator(JdbcTemplate jdbcTemplate,
+                              IdBlockAllocator idBlockAllocator,
+                              ClassRepository classRepository,
+                              AttendanceSummaryService attendanceSummaryService,
+                              AttendanceBitmapIndex attendanceBitmapIndex,
+                              CatalogCache catalogCache,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.scale.seed:42}") long seed,
+                              @Value("${app.scale.students:50000}") int studentCount,
+                              @Value("${app.scale.classes:2000}") int classCount,
+                              @Value("${app.scale.requests:5000}") int requestCount,
+                              @Value("${app.scale.term-start:2025-01-06}") String termStart,
+                              @Value("${app.scale.term-weeks:14}") int termWeeks,
+                              @Value("${app.scale.threads:4}") int threads,
+                              @Value("${app.scale.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idBlockAllocator = idBlockAllocator;
+        this.classRepository = classRepository;
+        this.attendanceSummaryService = attendanceSummaryService;
+        this.attendanceBitmapIndex = attendanceBitmapIndex;
+        this.catalogCache = catalogCache;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.seed = seed;
+        this.studentCount = studentCount;
+        this.classCount = classCount;
+        // One request per student at most, so no student has two pending requests for the same class
+        this.requestCount = Math.min(requestCount, studentCount);
+        this.termStart = LocalDate.parse(termStart);
+        this.termWeeks = termWeeks;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void generate() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student", Integer.class);
+        if (existing != null && existing >= studentCount) {
+            log.info("Skipping scale data generation, {} students already present", existing);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Plan plan = plan();
+        int firstStudentId = idBlockAllocator.reserve("student", studentCount);
+        int firstUserId = idBlockAllocator.reserve("user", studentCount);
+        int firstClassId = idBlockAllocator.reserve("class", classCount);
+        int firstAttendanceId = idBlockAllocator.reserve("attendance", plan.attendanceRows());
+        int firstRequestId = idBlockAllocator.reserve("class_request", requestCount);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long rows = 0;
+        try {
+            rows += runPhase(executor, 1, "student", studentCount, batchSize, (from, to, random) -> {
+                List<Object[]> students = new ArrayList<>(to - from);
+                List<Object[]> users = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    int studentId = firstStudentId + i;
+                    LocalDate dob = LocalDate.of(1995, 1, 1).plusDays(random.nextInt(14 * 365));
+                    students.add(new Object[]{studentId, pick(random, FIRST_NAMES), pick(random, LAST_NAMES),
+                            (1 + random.nextInt(400)) + " Main Street, " + pick(random, TOWNS), Date.valueOf(dob),
+                            String.format("%02d%03d%04dV", dob.getYear() % 100, dob.getDayOfYear(), studentId % 10000),
+                            String.format("07%08d", random.nextInt(100_000_000))});
+                    users.add(new Object[]{firstUserId + i, String.format("STU%06d", studentId), "student123", "STUDENT", studentId});
+                }
+                insert("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)", students);
+                insert("INSERT INTO user (id, username, password, role, student_id) VALUES (?, ?, ?, ?, ?)", users);
+                return students.size() + users.size();
+            });
+
+            rows += runPhase(executor, 2, "class", classCount, batchSize, (from, to, random) -> {
+                List<Object[]> classes = new ArrayList<>(to - from);
+                for (int c = from; c < to; c++) {
+                    ClassPlan classPlan = plan.classes().get(c);
+                    classes.add(new Object[]{firstClassId + c, classPlan.name(), classPlan.description(), classPlan.schedule(),
+                            Date.valueOf(classPlan.start()), Date.valueOf(classPlan.end())});
+                }
+                insert("INSERT INTO class (id, name, description, schedule, start_date, end_date) VALUES (?, ?, ?, ?, ?, ?)", classes);
+                return classes.size();
+            });
+
+            rows += runPhase(executor, 3, "class_student", studentCount, batchSize, (from, to, random) -> {
+                List<Object[]> enrolments = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    for (int c : plan.enrolments()[i]) {
+                        enrolments.add(new Object[]{firstClassId + c, firstStudentId + i});
+                    }
+                }
+                insert("INSERT INTO class_student (class_id, student_id) VALUES (?, ?)", enrolments);
+                return enrolments.size();
+            });
+
+            rows += runPhase(executor, 4, "attendance", studentCount, Math.max(1, batchSize / 10), (from, to, random) -> {
+                List<Object[]> attendance = new ArrayList<>(batchSize);
+                long written = 0;
+                for (int i = from; i < to; i++) {
+                    // Each student has their own habit, so per-student percentages spread out realistically
+                    double turnout = 0.55 + 0.43 * random.nextDouble();
+                    int attendanceId = firstAttendanceId + plan.attendanceOffsets()[i];
+                    for (int c : plan.enrolments()[i]) {
+                        for (Date session : plan.classes().get(c).sessions()) {
+                            attendance.add(new Object[]{attendanceId++, firstStudentId + i, firstClassId + c, session,
+                                    random.nextDouble() < turnout});
+                            if (attendance.size() == batchSize) {
+                                written += insert("INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (?, ?, ?, ?, ?)", attendance);
+                                attendance.clear();
+                            }
+                        }
+                    }
+                }
+                written += insert("INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (?, ?, ?, ?, ?)", attendance);
+                return written;
+            });
+
+            rows += runPhase(executor, 5, "class_request", requestCount, batchSize, (from, to, random) -> {
+                List<Object[]> requests = new ArrayList<>(to - from);
+                for (int r = from; r < to; r++) {
+                    int student = (int) ((long) r * studentCount / requestCount);
+                    int requested = random.nextInt(classCount);
+                    for (int attempt = 0; attempt < 10 && Arrays.binarySearch(plan.enrolments()[student], requested) >= 0; attempt++) {
+                        requested = random.nextInt(classCount);
+                    }
+                    if (Arrays.binarySearch(plan.enrolments()[student], requested) >= 0) {
+                        continue;
+                    }
+
+                    Timestamp requestDate = Timestamp.valueOf(termStart.plusDays(random.nextInt(termWeeks * 7))
+                            .atTime(8 + random.nextInt(12), random.nextInt(60)));
+                    boolean rejected = random.nextInt(5) == 0;
+                    requests.add(new Object[]{firstRequestId + r, firstStudentId + student, firstClassId + requested, requestDate,
+                            rejected ? "REJECTED" : "PENDING",
+                            rejected ? new Timestamp(requestDate.getTime() + (1 + random.nextInt(72)) * 3_600_000L) : null,
+                            rejected ? "Class is full" : null});
+                }
+                insert("INSERT INTO class_request (id, student_id, class_id, request_date, status, response_date, response_notes) VALUES (?, ?, ?, ?, ?, ?, ?)", requests);
+                return requests.size();
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        attendanceSummaryService.rebuild();
+        classRepository.recountSeats();
+        catalogCache.evictAll();
+        attendanceBitmapIndex.warm();
+
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Generated {} rows in {} ms ({} rows/s)", rows, elapsed, rows * 1000 / Math.max(1, elapsed));
+    }
+
+    // Everything the chunks need to agree on, drawn sequentially from the seed before any rows are written
+    private Plan plan() {
+        SplittableRandom random = random(0, 0);
+
+        List<ClassPlan> classes = new ArrayList<>(classCount);
+        for (int c = 0; c < classCount; c++) {
+            Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+            int meetings = 1 + random.nextInt(3);
+            while (days.size() < meetings) {
+                days.add(WEEKDAYS[random.nextInt(WEEKDAYS.length)]);
+            }
+            String schedule = days.stream()
+                    .map(day -> day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH))
+                    .collect(Collectors.joining(", ")) + " " + pick(random, SLOTS);
+
+            // Most classes run the whole term; about one in ten is a short course that ends early
+            LocalDate start = termStart.plusWeeks(random.nextInt(3));
+            int weeks = random.nextInt(10) == 0 ? 4 + random.nextInt(4) : Math.max(1, termWeeks - 2 + random.nextInt(3));
+            LocalDate end = start.plusWeeks(weeks).minusDays(1);
+
+            List<Date> sessions = new ArrayList<>();
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                if (days.contains(day.getDayOfWeek())) {
+                    sessions.add(Date.valueOf(day));
+                }
+            }
+
+            String subject = SUBJECTS[c % SUBJECTS.length];
+            int group = c / SUBJECTS.length + 1;
+            classes.add(new ClassPlan(subject + " " + group, subject + ", group " + group, schedule, start, end, sessions));
+        }
+
+        // Two to six classes per student, skewed towards the low indexes so a few classes are very popular
+        int[][] enrolments = new int[studentCount][];
+        int[] attendanceOffsets = new int[studentCount + 1];
+        for (int i = 0; i < studentCount; i++) {
+            int wanted = Math.min(classCount, 2 + random.nextInt(5));
+            int[] picked = new int[wanted];
+            int count = 0;
+            while (count < wanted) {
+                int c = (int) (Math.pow(random.nextDouble(), 2) * classCount);
+                boolean duplicate = false;
+                for (int j = 0; j < count && !duplicate; j++) {
+                    duplicate = picked[j] == c;
+                }
+                if (!duplicate) {
+                    picked[count++] = c;
+                }
+            }
+            Arrays.sort(picked);
+            enrolments[i] = picked;
+
+            int rows = 0;
+            for (int c : picked) {
+                rows += classes.get(c).sessions().size();
+            }
+            attendanceOffsets[i + 1] = attendanceOffsets[i] + rows;
+        }
+        return new Plan(classes, enrolments, attendanceOffsets);
+    }
+
+    private long runPhase(ExecutorService executor, int phase, String table, int total, int chunkSize, ChunkWriter writer) {
+        long start = System.currentTimeMillis();
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int from = 0, chunk = 0; from < total; from += chunkSize, chunk++) {
+                int lo = from;
+                int hi = Math.min(total, from + chunkSize);
+                SplittableRandom random = random(phase, chunk);
+                results.add(executor.submit(() -> chunkTransaction.execute(status -> writer.write(lo, hi, random))));
+            }
+
+            long rows = 0;
+            for (Future<Long> result : results) {
+                Long count = result.get();
+                rows += count != null ? count : 0;
+            }
+            log.info("Generated {} rows for {} in {} ms", rows, table, System.currentTimeMillis() - start);
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scale data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scale data generation failed writing " + table, e.getCause());
+        }
+    }
+
+    private int insert(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(sql, rows, batchSize, ScaleDataGenerator::setAll);
+        return rows.size();
+    }
+
+    private SplittableRandom random(int phase, int chunk) {
+        return new SplittableRandom(seed + GOLDEN_GAMMA * ((long) phase << 32 | chunk));
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void setAll(PreparedStatement ps, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            ps.setObject(i + 1, row[i]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        long write(int from, int to, SplittableRandom random);
+    }
+
+    private record ClassPlan(String name, String description, String schedule, LocalDate start, LocalDate end, List<Date> sessions) {
+    }
+
+    private record Plan(List<ClassPlan> classes, int[][] enrolments, int[] attendanceOffsets) {
+        int attendanceRows() {
+            return attendanceOffsets[attendanceOffsets.length - 1];
+        }
+    }
+}
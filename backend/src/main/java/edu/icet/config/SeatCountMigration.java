@@ -0,0 +1,31 @@
+package edu.icet.config;
+
+import edu.icet.repository.ClassRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Fills in the seat counts of classes created before the counter existed, or whose roster was
+ * written around the enrolment paths. Only classes whose count is off are touched.
+ */
+@Slf4j
+@Configuration
+@Profile("!test & !bench")
+@RequiredArgsConstructor
+public class SeatCountMigration {
+    private final ClassRepository classRepository;
+    private final CatalogCache catalogCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        int corrected = classRepository.recountSeats();
+        if (corrected > 0) {
+            catalogCache.evictAll();
+            log.info("Corrected the seat count of {} classes", corrected);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package edu.icet.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.SessionEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-session JDBC activity, registered through {@code hibernate.session.events.auto}, so Hibernate
+ * creates one instance per session. Open-session-in-view is off, so a session spans one transaction,
+ * or a single repository call outside of one.
+ * Hibernate builds these itself, so meters go through Spring Boot's global registry.
+ */
+public class SessionMetricsListener implements SessionEventListener {
+    private static final DistributionSummary STATEMENTS = DistributionSummary.builder("hibernate.session.statements")
+            .description("JDBC statements executed per Hibernate session")
+            .register(Metrics.globalRegistry);
+    private static final Timer JDBC_TIME = Timer.builder("hibernate.session.jdbc.time")
+            .description("Time spent executing JDBC statements per Hibernate session")
+            .register(Metrics.globalRegistry);
+    private static final DistributionSummary CACHE_MISSES = DistributionSummary.builder("hibernate.session.cache.misses")
+            .description("Second-level cache misses per Hibernate session")
+            .register(Metrics.globalRegistry);
+
+    private int statements;
+    private int cacheMisses;
+    private long executionStart;
+    private long executionNanos;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statements++;
+        executionNanos += System.nanoTime() - executionStart;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statements++;
+        executionNanos += System.nanoTime() - executionStart;
+    }
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        if (!hit) {
+            cacheMisses++;
+        }
+    }
+
+    @Override
+    public void end() {
+        if (statements == 0 && cacheMisses == 0) {
+            return;
+        }
+        STATEMENTS.record(statements);
+        JDBC_TIME.record(executionNanos, TimeUnit.NANOSECONDS);
+        CACHE_MISSES.record(cacheMisses);
+    }
+}
@@ -0,0 +1,167 @@
+package edu.icet.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements each HTTP request executes, records them as {@code http.server.sql.statements}
+ * and logs requests over {@code app.sql-budget.max-statements} with their query shapes. A shape that
+ * repeats {@code app.sql-budget.repeat-threshold} times or more is logged as a likely N+1 even within
+ * budget. The count so far goes out as the {@code X-SQL-Statements} header just before the response
+ * starts; with {@code app.sql-budget.strict} an over-budget request fails at that point instead, while
+ * it can still be answered with an error, for use in tests.
+ */
+@Slf4j
+@Component
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final int repeatThreshold;
+    private final boolean strict;
+
+    public SqlBudgetFilter(SqlStatementCounter counter,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.sql-budget.max-statements:20}") int maxStatements,
+                           @Value("${app.sql-budget.repeat-threshold:10}") int repeatThreshold,
+                           @Value("${app.sql-budget.strict:false}") boolean strict) {
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.repeatThreshold = repeatThreshold;
+        this.strict = strict;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Tally tally = counter.open();
+        BudgetCheckingResponse checked = new BudgetCheckingResponse(response, request, tally);
+        try {
+            filterChain.doFilter(request, checked);
+            // Responses without a body, such as 304s, never started one
+            checked.beforeCommit();
+        } finally {
+            counter.close(tally);
+            report(request, tally);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementCounter.Tally tally) {
+        String uri = uriOf(request);
+        DistributionSummary.builder("http.server.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(tally.statements());
+
+        Map<String, Integer> shapes = tally.shapes();
+        if (tally.statements() > maxStatements) {
+            log.warn("{} {} ran {} SQL statements, budget is {}:\n{}", request.getMethod(), uri, tally.statements(),
+                    maxStatements, format(shapes));
+        } else {
+            shapes.forEach((shape, count) -> {
+                if (count >= repeatThreshold) {
+                    log.warn("Possible N+1 in {} {}: {}x {}", request.getMethod(), uri, count, shape);
+                }
+            });
+        }
+    }
+
+    private static String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private static String format(Map<String, Integer> shapes) {
+        return shapes.entrySet().stream()
+                .map(entry -> String.format("%6dx %s", entry.getValue(), entry.getKey()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Runs the budget check the first time the response is about to be written or committed. Endpoints
+     * load everything inside their transaction, so by then the statements of the request have run.
+     */
+    private final class BudgetCheckingResponse extends HttpServletResponseWrapper {
+        private final HttpServletRequest request;
+        private final SqlStatementCounter.Tally tally;
+        private boolean checked;
+
+        private BudgetCheckingResponse(HttpServletResponse response, HttpServletRequest request,
+                                       SqlStatementCounter.Tally tally) {
+            super(response);
+            this.request = request;
+            this.tally = tally;
+        }
+
+        void beforeCommit() {
+            if (checked) {
+                return;
+            }
+            checked = true;
+            if (!isCommitted()) {
+                setIntHeader(STATEMENTS_HEADER, tally.statements());
+            }
+            if (strict && tally.statements() > maxStatements) {
+                throw new IllegalStateException(request.getMethod() + " " + uriOf(request) + " ran " + tally.statements()
+                        + " SQL statements, budget is " + maxStatements);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeCommit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeCommit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            beforeCommit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            beforeCommit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package edu.icet.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the JDBC statements executed on the current thread while a tally is open, grouped by query
+ * shape (the SQL with literals and IN lists collapsed). Fed by the datasource proxy, so it sees
+ * Hibernate and JdbcTemplate statements alike.
+ * <p>
+ * {@link SqlBudgetFilter} opens a tally per HTTP request. Tests can wrap any call with
+ * {@link #count(Supplier)} and assert on the result; tallies nest, so an outer tally also
+ * counts what a request inside it executes.
+ */
+@Component
+public class SqlStatementCounter implements QueryExecutionListener {
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    public Tally open() {
+        Tally tally = new Tally(CURRENT.get());
+        CURRENT.set(tally);
+        return tally;
+    }
+
+    public void close(Tally tally) {
+        if (tally.parent != null) {
+            CURRENT.set(tally.parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public Tally count(Runnable work) {
+        return count(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> Tally count(Supplier<T> work) {
+        Tally tally = open();
+        try {
+            work.get();
+            return tally;
+        } finally {
+            close(tally);
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Tally tally = CURRENT.get();
+        if (tally == null) {
+            return;
+        }
+        String shape = queryInfoList.isEmpty() ? "" : shape(queryInfoList.get(0).getQuery());
+        for (Tally t = tally; t != null; t = t.parent) {
+            t.record(shape);
+        }
+    }
+
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER.matcher(shape).replaceAll("?");
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?, ...)");
+    }
+
+    public static final class Tally {
+        private final Tally parent;
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+        private int statements;
+
+        private Tally(Tally parent) {
+            this.parent = parent;
+        }
+
+        private void record(String shape) {
+            statements++;
+            shapes.merge(shape, 1, Integer::sum);
+        }
+
+        public int statements() {
+            return statements;
+        }
+
+        /**
+         * Query shapes with their execution counts, most frequent first.
+         */
+        public Map<String, Integer> shapes() {
+            Map<String, Integer> sorted = new LinkedHashMap<>();
+            shapes.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                    .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+            return sorted;
+        }
+
+        public void assertAtMost(int maxStatements) {
+            if (statements > maxStatements) {
+                throw new IllegalStateException("Expected at most " + maxStatements + " SQL statements but " + statements
+                        + " ran: " + shapes());
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package edu.icet.config;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Looks up unique keys through the JDBC metadata, for the migrations that must not rely on Hibernate's
+ * schema update having added them.
+ */
+final class UniqueKeys {
+
+    private UniqueKeys() {
+    }
+
+    /**
+     * Whether the table has a unique key over exactly these columns. Matched on the columns rather than the
+     * name, since databases name the index behind a constraint differently.
+     */
+    static boolean exists(JdbcTemplate jdbcTemplate, String table, Set<String> columns) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Set<String>> columnsByIndex = new HashMap<>();
+            for (String name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+                try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), name, true, false)) {
+                    while (rs.next()) {
+                        String index = rs.getString("INDEX_NAME");
+                        String column = rs.getString("COLUMN_NAME");
+                        if (index != null && column != null) {
+                            columnsByIndex.computeIfAbsent(index, key -> new HashSet<>()).add(column.toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+            }
+            return columnsByIndex.containsValue(columns);
+        }));
+    }
+}
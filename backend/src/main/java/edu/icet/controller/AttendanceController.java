@@ -1,12 +1,21 @@
 package edu.icet.controller;
 
+import edu.icet.dto.ArchiveReport;
 import edu.icet.dto.Attendance;
+import edu.icet.dto.AttendanceChange;
+import edu.icet.dto.BitmapIndexStats;
+import edu.icet.dto.SummaryVerification;
+import edu.icet.dto.response.AttendanceResponse;
+import edu.icet.service.AttendanceArchiveService;
 import edu.icet.service.AttendanceService;
+import edu.icet.service.AttendanceSummaryService;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -16,20 +25,26 @@ import java.util.Map;
 @RequestMapping("/attendance")
 public class AttendanceController {
     private final AttendanceService attendanceService;
+    private final AttendanceSummaryService attendanceSummaryService;
+    private final AttendanceArchiveService attendanceArchiveService;
 
-    public AttendanceController(AttendanceService attendanceService) {
+    public AttendanceController(AttendanceService attendanceService, AttendanceSummaryService attendanceSummaryService,
+                                AttendanceArchiveService attendanceArchiveService) {
         this.attendanceService = attendanceService;
+        this.attendanceSummaryService = attendanceSummaryService;
+        this.attendanceArchiveService = attendanceArchiveService;
     }
 
+    // Archived classes are left out unless asked for, since they can hold most of the history
     @GetMapping
-    public List<Attendance> getAllAttendance() {
-        return attendanceService.findAllAttendance();
+    public List<AttendanceResponse> getAllAttendance(@RequestParam(defaultValue = "false") boolean includeArchived) {
+        return attendanceService.findAllAttendance(includeArchived);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Attendance> getAttendanceById(@PathVariable Integer id) {
+    public ResponseEntity<AttendanceResponse> getAttendanceById(@PathVariable Integer id) {
         try {
-            Attendance attendance = attendanceService.findById(id);
+            AttendanceResponse attendance = attendanceService.findById(id);
             return ResponseEntity.ok(attendance);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -37,9 +52,9 @@ public class AttendanceController {
     }
 
     @PostMapping
-    public ResponseEntity<Attendance> createAttendance(@RequestBody Attendance attendance) {
+    public ResponseEntity<AttendanceResponse> createAttendance(@RequestBody Attendance attendance) {
         try {
-            Attendance createdAttendance = attendanceService.createAttendance(attendance);
+            AttendanceResponse createdAttendance = attendanceService.createAttendance(attendance);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdAttendance);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
@@ -47,9 +62,9 @@ public class AttendanceController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Attendance> updateAttendance(@PathVariable Integer id, @RequestBody Attendance attendance) {
+    public ResponseEntity<AttendanceResponse> updateAttendance(@PathVariable Integer id, @RequestBody Attendance attendance) {
         try {
-            Attendance updatedAttendance = attendanceService.updateAttendance(attendance);
+            AttendanceResponse updatedAttendance = attendanceService.updateAttendance(attendance);
             return ResponseEntity.ok(updatedAttendance);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
@@ -67,37 +82,37 @@ public class AttendanceController {
     }
 
     @GetMapping("/student/{studentId}")
-    public List<Attendance> getAttendanceByStudentId(@PathVariable Integer studentId) {
+    public List<AttendanceResponse> getAttendanceByStudentId(@PathVariable Integer studentId) {
         return attendanceService.findAttendanceByStudentId(studentId);
     }
 
     @GetMapping("/class/{classId}")
-    public List<Attendance> getAttendanceByClassId(@PathVariable Integer classId) {
+    public List<AttendanceResponse> getAttendanceByClassId(@PathVariable Integer classId) {
         return attendanceService.findAttendanceByClassId(classId);
     }
 
     @GetMapping("/student/{studentId}/class/{classId}")
-    public List<Attendance> getAttendanceByStudentAndClass(
+    public List<AttendanceResponse> getAttendanceByStudentAndClass(
             @PathVariable Integer studentId,
             @PathVariable Integer classId) {
         return attendanceService.findAttendanceByStudentAndClass(studentId, classId);
     }
 
     @GetMapping("/date")
-    public List<Attendance> getAttendanceByDate(
+    public List<AttendanceResponse> getAttendanceByDate(
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date date) {
         return attendanceService.findAttendanceByDate(date);
     }
 
     @GetMapping("/class/{classId}/date")
-    public List<Attendance> getAttendanceByClassAndDate(
+    public List<AttendanceResponse> getAttendanceByClassAndDate(
             @PathVariable Integer classId,
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date date) {
         return attendanceService.findAttendanceByClassAndDate(classId, date);
     }
 
     @PostMapping("/mark")
-    public ResponseEntity<String> markAttendance(
+    public ResponseEntity<?> markAttendance(
             @RequestBody Map<String, Object> attendanceData) {
         try {
             Integer classId = (Integer) attendanceData.get("classId");
@@ -122,8 +137,8 @@ public class AttendanceController {
                     );
             // Convert string to Date directly
             Date date = java.sql.Date.valueOf(dateStr);
-            attendanceService.markAttendance(classId, date, studentAttendance);
-            return ResponseEntity.ok("Attendance marked successfully");
+            Map<Integer, AttendanceChange> changes = attendanceService.markAttendance(classId, date, studentAttendance);
+            return ResponseEntity.ok(changes);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error marking attendance: " + e.getMessage());
         }
@@ -138,4 +153,55 @@ public class AttendanceController {
             return ResponseEntity.badRequest().body(null);
         }
     }
+
+    @GetMapping("/class/{classId}/percentages")
+    public ResponseEntity<Map<Integer, Double>> getAttendancePercentagesForClass(@PathVariable Integer classId) {
+        try {
+            Map<Integer, Double> percentages = attendanceService.getAttendancePercentagesForClass(classId);
+            return ResponseEntity.ok(percentages);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/summary/rebuild")
+    public SummaryVerification rebuildSummary() {
+        return attendanceSummaryService.rebuild();
+    }
+
+    @GetMapping("/summary/verify")
+    public SummaryVerification verifySummary() {
+        return attendanceSummaryService.verify();
+    }
+
+    @PostMapping("/archive/run")
+    public ArchiveReport archiveEndedClasses() {
+        return attendanceArchiveService.archiveEndedClasses();
+    }
+
+    @GetMapping("/class/{classId}/absent")
+    public List<Integer> getAbsentStudents(
+            @PathVariable Integer classId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date date) {
+        return attendanceService.findAbsentStudents(classId, date);
+    }
+
+    @GetMapping("/class/{classId}/regulars")
+    public List<Integer> getRegularStudents(
+            @PathVariable Integer classId,
+            @RequestParam double minPercentage) {
+        return attendanceService.findStudentsPresentAtLeast(classId, minPercentage);
+    }
+
+    @GetMapping("/student/{studentId}/class/{classId}/missed")
+    public List<LocalDate> getMissedSessions(
+            @PathVariable Integer studentId,
+            @PathVariable Integer classId) {
+        return attendanceService.findMissedSessions(studentId, classId);
+    }
+
+    @GetMapping("/index/stats")
+    public BitmapIndexStats getBitmapIndexStats() {
+        return attendanceService.getBitmapIndexStats();
+    }
 }
@@ -0,0 +1,21 @@
+package edu.icet.controller;
+
+import edu.icet.config.CatalogCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CatalogCache catalogCache;
+
+    @GetMapping("/stats")
+    public Map<String, Object> getCacheStatistics() {
+        return catalogCache.statistics();
+    }
+}
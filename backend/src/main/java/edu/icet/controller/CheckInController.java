@@ -0,0 +1,96 @@
+package edu.icet.controller;
+
+import edu.icet.dto.AuthPrincipal;
+import edu.icet.dto.CheckInOutcome;
+import edu.icet.dto.CheckInRequest;
+import edu.icet.dto.CheckInSession;
+import edu.icet.service.CheckInService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/attendance/checkin")
+@RequiredArgsConstructor
+public class CheckInController {
+
+    private final CheckInService checkInService;
+
+    // Body: {"classId": 3, "minutes": 15}; minutes is optional
+    @PostMapping("/sessions")
+    public ResponseEntity<?> openSession(@RequestBody Map<String, Integer> sessionData,
+                                         @RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal) {
+        ResponseEntity<?> denied = requireAdmin(principal);
+        if (denied != null) {
+            return denied;
+        }
+        Integer classId = sessionData.get("classId");
+        if (classId == null) {
+            return ResponseEntity.badRequest().body("Class ID is required");
+        }
+        try {
+            Integer minutes = sessionData.get("minutes");
+            CheckInSession session = checkInService.openSession(classId, minutes != null ? minutes : 0);
+            return ResponseEntity.status(HttpStatus.CREATED).body(session);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/sessions/{code}")
+    public ResponseEntity<?> getSession(@PathVariable String code,
+                                        @RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal) {
+        ResponseEntity<?> denied = requireAdmin(principal);
+        return denied != null ? denied : ResponseEntity.of(checkInService.findSession(code));
+    }
+
+    @DeleteMapping("/sessions/{code}")
+    public ResponseEntity<?> closeSession(@PathVariable String code,
+                                          @RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal) {
+        ResponseEntity<?> denied = requireAdmin(principal);
+        return denied != null ? denied : ResponseEntity.of(checkInService.closeSession(code));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> checkIn(@RequestBody CheckInRequest request,
+                                     @RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (principal.studentId() == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only students can check in");
+        }
+        if (request.code() == null) {
+            return ResponseEntity.badRequest().body("Code is required");
+        }
+        CheckInOutcome outcome = checkInService.checkIn(request.code(), principal.studentId());
+        Map<String, CheckInOutcome> body = Map.of("outcome", outcome);
+        return switch (outcome) {
+            // Accepted but not written yet
+            case ACCEPTED -> ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+            case ALREADY_CHECKED_IN -> ResponseEntity.ok(body);
+            case UNKNOWN_CODE -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+            case EXPIRED -> ResponseEntity.status(HttpStatus.GONE).body(body);
+            case NOT_ENROLLED -> ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
+            case BUSY -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(body);
+        };
+    }
+
+    // Sessions hand out the code students check in with, so only staff may open or read them
+    private static ResponseEntity<?> requireAdmin(AuthPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!principal.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only administrators can manage check-in sessions");
+        }
+        return null;
+    }
+}
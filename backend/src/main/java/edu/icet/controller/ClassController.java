@@ -1,15 +1,21 @@
 package edu.icet.controller;
 
 import edu.icet.dto.Class;
-import edu.icet.dto.Student;
+import edu.icet.dto.EnrolmentBatch;
+import edu.icet.dto.projection.ClassSummary;
+import edu.icet.dto.response.ClassResponse;
+import edu.icet.dto.response.StudentResponse;
 import edu.icet.service.ClassService;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.Set;
 
 @RestController
 @CrossOrigin
@@ -20,33 +26,48 @@ public class ClassController {
     private final ClassService classService;
 
     @GetMapping
-    public List<Class> getAllClasses() {
-        return classService.findAllClasses();
+    public ResponseEntity<List<ClassResponse>> getAllClasses(WebRequest request) {
+        // Taken before the rows are read, so a concurrent write can only make the tag stale, never the body
+        String etag = ETags.weak("classes", classService.findAllClassesVersion());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ETags.REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(ETags.REVALIDATE).body(classService.findAllClasses());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Class> getClassById(@PathVariable Integer id) {
+    public ResponseEntity<ClassResponse> getClassById(@PathVariable Integer id, WebRequest request) {
         try {
-            Class classObj = classService.findById(id);
-            return ResponseEntity.ok(classObj);
+            String etag = ETags.weak("class-" + id, classService.findClassVersion(id));
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ETags.REVALIDATE).build();
+            }
+            ClassResponse classObj = classService.findById(id);
+            return ResponseEntity.ok().eTag(etag).cacheControl(ETags.REVALIDATE).body(classObj);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PostMapping
-    public ResponseEntity<Class> createClass(@RequestBody Class classObj) {
+    public ResponseEntity<ClassResponse> createClass(@RequestBody Class classObj) {
         Class createdClass = classService.createClass(classObj);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdClass);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ClassResponse.from(createdClass));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Class> updateClass(@PathVariable Integer id, @RequestBody Class classObj) {
+    public ResponseEntity<ClassResponse> updateClass(@PathVariable Integer id, @RequestBody Class classObj) {
         if (!id.equals(classObj.getId())) {
             return ResponseEntity.badRequest().build();
         }
-        Class updatedClass = classService.updateClass(classObj);
-        return ResponseEntity.ok(updatedClass);
+        try {
+            Class updatedClass = classService.updateClass(classObj);
+            return ResponseEntity.ok(ClassResponse.from(updatedClass));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -60,40 +81,70 @@ public class ClassController {
     }
 
     @GetMapping("/student/{studentId}")
-    public List<Class> getClassesByStudentId(@PathVariable Integer studentId) {
+    public List<ClassResponse> getClassesByStudentId(@PathVariable Integer studentId) {
         return classService.findClassesByStudentId(studentId);
     }
 
     @GetMapping("/student/{studentId}/available")
-    public List<Class> getAvailableClassesForStudent(@PathVariable Integer studentId) {
-        return classService.findClassesNotEnrolledByStudent(studentId);
+    public ResponseEntity<List<ClassSummary>> getAvailableClassesForStudent(
+            @PathVariable Integer studentId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            Slice<ClassSummary> classes = classService.findClassesNotEnrolledByStudent(studentId, page, size);
+            return ResponseEntity.ok()
+                    .header("X-Has-Next-Page", String.valueOf(classes.hasNext()))
+                    .body(classes.getContent());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping("/{classId}/students/{studentId}")
-    public ResponseEntity<Class> addStudentToClass(@PathVariable Integer classId, @PathVariable Integer studentId) {
+    public ResponseEntity<Void> addStudentToClass(@PathVariable Integer classId, @PathVariable Integer studentId) {
         try {
-            Class updatedClass = classService.addStudentToClass(classId, studentId);
-            return ResponseEntity.ok(updatedClass);
+            classService.addStudentToClass(classId, studentId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            // No free seat
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(null);
+            return ResponseEntity.badRequest().build();
         }
     }
 
     @DeleteMapping("/{classId}/students/{studentId}")
-    public ResponseEntity<Class> removeStudentFromClass(@PathVariable Integer classId, @PathVariable Integer studentId) {
+    public ResponseEntity<Void> removeStudentFromClass(@PathVariable Integer classId, @PathVariable Integer studentId) {
         try {
-            Class updatedClass = classService.removeStudentFromClass(classId, studentId);
-            return ResponseEntity.ok(updatedClass);
+            classService.removeStudentFromClass(classId, studentId);
+            return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(null);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{classId}/students:batch")
+    public ResponseEntity<?> updateEnrolments(@PathVariable Integer classId, @RequestBody EnrolmentBatch batch) {
+        try {
+            return ResponseEntity.ok(classService.updateEnrolments(classId, batch));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         }
     }
 
     @GetMapping("/{classId}/students")
-    public ResponseEntity<Set<Student>> getEnrolledStudents(@PathVariable Integer classId) {
+    public ResponseEntity<List<StudentResponse>> getEnrolledStudents(@PathVariable Integer classId, WebRequest request) {
         try {
-            Set<Student> students = classService.getEnrolledStudents(classId);
-            return ResponseEntity.ok(students);
+            String etag = ETags.weak("class-" + classId + "-students", classService.findRosterVersion(classId));
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ETags.REVALIDATE).build();
+            }
+            List<StudentResponse> students = classService.getEnrolledStudents(classId);
+            return ResponseEntity.ok().eTag(etag).cacheControl(ETags.REVALIDATE).body(students);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
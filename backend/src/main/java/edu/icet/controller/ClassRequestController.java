@@ -1,11 +1,16 @@
 package edu.icet.controller;
 
 import edu.icet.dto.ClassRequest;
+import edu.icet.dto.RequestDecisionBatch;
+import edu.icet.dto.response.ClassRequestResponse;
 import edu.icet.service.ClassRequestService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -19,14 +24,14 @@ public class ClassRequestController {
     private final ClassRequestService classRequestService;
 
     @GetMapping
-    public List<ClassRequest> getAllRequests() {
+    public List<ClassRequestResponse> getAllRequests() {
         return classRequestService.findAllRequests();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ClassRequest> getRequestById(@PathVariable Integer id) {
+    public ResponseEntity<ClassRequestResponse> getRequestById(@PathVariable Integer id) {
         try {
-            ClassRequest request = classRequestService.findById(id);
+            ClassRequestResponse request = classRequestService.findById(id);
             return ResponseEntity.ok(request);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -43,56 +48,73 @@ public class ClassRequestController {
                 return ResponseEntity.badRequest().body("Student ID and Class ID are required");
             }
 
-            if (classRequestService.hasExistingRequest(studentId, classId)) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                        .body("A pending request for this class already exists");
-            }
-
             ClassRequest createdRequest = classRequestService.createRequest(studentId, classId);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdRequest);
+            return ResponseEntity.status(HttpStatus.CREATED).body(ClassRequestResponse.from(createdRequest));
+        } catch (IllegalStateException e) {
+            // Duplicate pending request, already enrolled, or no seat left
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (CannotAcquireLockException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many requests for this class, try again");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
     @PutMapping("/{requestId}/approve")
-    public ResponseEntity<ClassRequest> approveRequest(
+    public ResponseEntity<ClassRequestResponse> approveRequest(
             @PathVariable Integer requestId,
             @RequestBody(required = false) Map<String, String> notes) {
         try {
             String responseNotes = notes != null ? notes.get("notes") : "";
             ClassRequest updatedRequest = classRequestService.approveRequest(requestId, responseNotes);
-            return ResponseEntity.ok(updatedRequest);
+            return ResponseEntity.ok(ClassRequestResponse.from(updatedRequest));
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
     }
 
     @PutMapping("/{requestId}/reject")
-    public ResponseEntity<ClassRequest> rejectRequest(
+    public ResponseEntity<ClassRequestResponse> rejectRequest(
             @PathVariable Integer requestId,
             @RequestBody(required = false) Map<String, String> notes) {
         try {
             String responseNotes = notes != null ? notes.get("notes") : "";
             ClassRequest updatedRequest = classRequestService.rejectRequest(requestId, responseNotes);
-            return ResponseEntity.ok(updatedRequest);
+            return ResponseEntity.ok(ClassRequestResponse.from(updatedRequest));
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
     }
 
+    @PostMapping("/approve:batch")
+    public ResponseEntity<?> decideRequests(@RequestBody RequestDecisionBatch batch) {
+        try {
+            return ResponseEntity.ok(classRequestService.decideRequests(batch));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/student/{studentId}")
-    public List<ClassRequest> getRequestsByStudentId(@PathVariable Integer studentId) {
+    public List<ClassRequestResponse> getRequestsByStudentId(@PathVariable Integer studentId) {
         return classRequestService.findRequestsByStudentId(studentId);
     }
 
     @GetMapping("/class/{classId}")
-    public List<ClassRequest> getRequestsByClassId(@PathVariable Integer classId) {
+    public List<ClassRequestResponse> getRequestsByClassId(@PathVariable Integer classId) {
         return classRequestService.findRequestsByClassId(classId);
     }
 
     @GetMapping("/pending")
-    public List<ClassRequest> getPendingRequests() {
-        return classRequestService.findPendingRequests();
+    public ResponseEntity<List<ClassRequestResponse>> getPendingRequests(WebRequest request) {
+        String etag = ETags.weak("requests-pending", classRequestService.findPendingRequestsVersion());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ETags.REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(ETags.REVALIDATE).body(classRequestService.findPendingRequests());
     }
 }
@@ -0,0 +1,16 @@
+package edu.icet.controller;
+
+import org.springframework.http.CacheControl;
+
+final class ETags {
+    // Let browsers keep the body but revalidate it on every use, which turns repeat fetches into 304s
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    // Weak, because equal versions mean equal content, not byte-identical JSON
+    static String weak(String resource, String version) {
+        return "W/\"" + resource + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,44 @@
+package edu.icet.controller;
+
+import edu.icet.dto.ChangeTopic;
+import edu.icet.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final ChangeFeedService changeFeedService;
+
+    // e.g. /events?topics=requests,enrolment&studentId=12; EventSource resends Last-Event-ID when it reconnects
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> subscribe(@RequestParam(required = false) String topics,
+                                       @RequestParam(required = false) Integer studentId,
+                                       @RequestParam(required = false) Integer classId,
+                                       @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        Set<ChangeTopic> selected = EnumSet.noneOf(ChangeTopic.class);
+        try {
+            if (topics != null && !topics.isBlank()) {
+                Arrays.stream(topics.split(",")).map(ChangeTopic::parse).forEach(selected::add);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        try {
+            return ResponseEntity.ok(changeFeedService.subscribe(selected, studentId, classId, lastEventId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package edu.icet.controller;
+
+import edu.icet.dto.ExportFormat;
+import edu.icet.dto.RequestStatus;
+import edu.icet.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @GetMapping("/attendance")
+    public ResponseEntity<StreamingResponseBody> exportAttendance(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Integer classId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            ExportFormat exportFormat = ExportFormat.parse(format);
+            return stream("attendance", exportFormat,
+                    out -> exportService.exportAttendance(exportFormat, classId, from, to, out));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/enrolments")
+    public ResponseEntity<StreamingResponseBody> exportEnrolments(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Integer classId) {
+        try {
+            ExportFormat exportFormat = ExportFormat.parse(format);
+            return stream("enrolments", exportFormat,
+                    out -> exportService.exportEnrolments(exportFormat, classId, out));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/requests")
+    public ResponseEntity<StreamingResponseBody> exportClassRequests(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Integer classId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            ExportFormat exportFormat = ExportFormat.parse(format);
+            RequestStatus requestStatus = status != null ? RequestStatus.parse(status) : null;
+            return stream("requests", exportFormat,
+                    out -> exportService.exportClassRequests(exportFormat, classId, requestStatus, from, to, out));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(name + "." + format.getExtension()).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,71 @@
+package edu.icet.controller;
+
+import edu.icet.dto.ImportReport;
+import edu.icet.service.ImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@CrossOrigin
+@RequestMapping("/import")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private static final String CSV = "text/csv";
+
+    private final ImportService importService;
+
+    // Multipart uploads are held to the global spring.servlet.multipart limits
+    @PostMapping(value = "/students", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importStudents(@RequestParam("file") MultipartFile file) {
+        return importCsv(file, importService::importStudents);
+    }
+
+    // The request body is the CSV itself and is read as it arrives, so there is no size limit
+    @PostMapping(value = "/students", consumes = {CSV, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportReport> importStudentsCsv(InputStream body) {
+        return importCsv(() -> body, importService::importStudents);
+    }
+
+    @PostMapping(value = "/classes", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importClasses(@RequestParam("file") MultipartFile file) {
+        return importCsv(file, importService::importClasses);
+    }
+
+    @PostMapping(value = "/classes", consumes = {CSV, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportReport> importClassesCsv(InputStream body) {
+        return importCsv(() -> body, importService::importClasses);
+    }
+
+    @PostMapping(value = "/attendance", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importAttendance(@RequestParam("file") MultipartFile file) {
+        return importCsv(file, importService::importAttendance);
+    }
+
+    @PostMapping(value = "/attendance", consumes = {CSV, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportReport> importAttendanceCsv(InputStream body) {
+        return importCsv(() -> body, importService::importAttendance);
+    }
+
+    private static ResponseEntity<ImportReport> importCsv(InputStreamSource source, CsvImport csvImport) {
+        try (Reader csv = new InputStreamReader(source.getInputStream(), StandardCharsets.UTF_8)) {
+            return ResponseEntity.ok(csvImport.run(csv));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private interface CsvImport {
+        ImportReport run(Reader csv) throws IOException;
+    }
+}
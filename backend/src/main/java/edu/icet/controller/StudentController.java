@@ -1,41 +1,101 @@
 package edu.icet.controller;
 
 import edu.icet.dto.Student;
+import edu.icet.dto.StudentPage;
+import edu.icet.dto.response.StudentResponse;
 import edu.icet.service.StudentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @CrossOrigin
 @RequestMapping("/student")
 @RequiredArgsConstructor
 public class StudentController {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     final StudentService service;
 
+    // fields picks the columns of a page from id, fName, lName, address, dob, nic, contact and profilePicHash; id is always included
     @GetMapping("/students")
-    public List<Student> getAllStudents() {
-        return service.findAllStudents();
+    public ResponseEntity<?> getAllStudents(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Set<String> fields) {
+        // Without paging parameters keep returning the full list for older clients
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(service.findAllStudents());
+        }
+        try {
+            StudentPage page = service.findStudentPage(after, limit != null ? limit : DEFAULT_PAGE_SIZE,
+                    fields != null ? fields : Set.of());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PostMapping("/students")
     public void addStudent(@RequestPart("student") Student student, @RequestPart("profilePic") MultipartFile file) throws IOException {
-        student.setProfilePic(file.getBytes());
-        service.addStudent(student);
+        service.addStudent(student, file.getBytes());
     }
 
     @GetMapping("/students/{id}")
-    public Student getStudentById(@PathVariable Integer id) {
+    public StudentResponse getStudentById(@PathVariable Integer id) {
         return service.searchStudentById(id);
     }
 
+    @GetMapping("/students/{id}/picture")
+    public ResponseEntity<Resource> getStudentPicture(@PathVariable Integer id, WebRequest request) throws IOException {
+        Optional<String> hash = service.findProfilePicHash(id);
+        if (hash.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // The hash is the content address, so it doubles as a strong ETag
+        String etag = "\"" + hash.get() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate().mustRevalidate();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        Optional<Resource> picture = service.loadProfilePic(hash.get());
+        if (picture.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentLength(picture.get().contentLength())
+                .contentType(detectContentType(picture.get()))
+                .body(picture.get());
+    }
+
     @PatchMapping("/students")
-    public void updateStudent(@RequestPart("student") Student student, @RequestPart("profilePicture") MultipartFile file) throws IOException {
-        student.setProfilePic(file.getBytes());
-        service.updateStudent(student);
+    public ResponseEntity<Void> updateStudent(@RequestPart("student") Student student, @RequestPart("profilePicture") MultipartFile file) throws IOException {
+        try {
+            service.updateStudent(student, file.getBytes());
+            return ResponseEntity.ok().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/students/{id}")
@@ -43,4 +103,14 @@ public class StudentController {
         service.deleteStudentById(id);
     }
 
+    // Pictures are stored without a file name, so sniff the magic bytes instead
+    private MediaType detectContentType(Resource picture) throws IOException {
+        try (InputStream in = new BufferedInputStream(picture.getInputStream())) {
+            String guessed = URLConnection.guessContentTypeFromStream(in);
+            if (guessed != null) {
+                return MediaType.parseMediaType(guessed);
+            }
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
 }
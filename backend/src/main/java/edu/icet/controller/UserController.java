@@ -1,8 +1,12 @@
 package edu.icet.controller;
 
+import edu.icet.dto.AuthPrincipal;
 import edu.icet.dto.User;
+import edu.icet.dto.response.UserResponse;
+import edu.icet.service.TokenService;
 import edu.icet.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -10,7 +14,8 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @CrossOrigin
@@ -19,15 +24,16 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final TokenService tokenService;
 
     @GetMapping
-    public List<User> getAllUsers() {
+    public List<UserResponse> getAllUsers() {
         return userService.findAllUsers();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Integer id) {
-        User user = userService.findById(id);
+    public ResponseEntity<UserResponse> getUserById(@PathVariable Integer id) {
+        UserResponse user = userService.findById(id);
         if (user != null) {
             return ResponseEntity.ok(user);
         } else {
@@ -36,17 +42,17 @@ public class UserController {
     }
 
     @PostMapping
-    public ResponseEntity<User> createUser(@RequestBody User user) {
-        User createdUser = userService.createUser(user);
+    public ResponseEntity<UserResponse> createUser(@RequestBody User user) {
+        UserResponse createdUser = userService.createUser(user);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Integer id, @RequestBody User user) {
+    public ResponseEntity<UserResponse> updateUser(@PathVariable Integer id, @RequestBody User user) {
         if (!id.equals(user.getId())) {
             return ResponseEntity.badRequest().build();
         }
-        User updatedUser = userService.updateUser(user);
+        UserResponse updatedUser = userService.updateUser(user);
         return ResponseEntity.ok(updatedUser);
     }
 
@@ -57,32 +63,45 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> loginRequest) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> login(@RequestBody Map<String, String> loginRequest) {
         String username = loginRequest.get("username");
         String password = loginRequest.get("password");
 
         if (username == null || password == null) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        try {
+            return userService.authenticate(username, password).thenApply(user -> user
+                    .map(this::loginResponse)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build()));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build());
+        }
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<AuthPrincipal> getCurrentUser(
+            @RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
+        return ResponseEntity.ok(principal);
+    }
+
+    private ResponseEntity<Map<String, Object>> loginResponse(User user) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("authenticated", true);
+        response.put("role", user.getRole());
+        response.put("userId", user.getId());
+        response.put("token", tokenService.issue(user));
 
-        boolean authenticated = userService.authenticate(username, password);
-        if (authenticated) {
-            Optional<User> userOptional = userService.findByUsername(username);
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                Map<String, Object> response = new HashMap<>();
-                response.put("authenticated", true);
-                response.put("role", user.getRole());
-                response.put("userId", user.getId());
-
-                if (user.getStudent() != null) {
-                    response.put("studentId", user.getStudent().getId());
-                }
-
-                return ResponseEntity.ok(response);
-            }
+        if (user.getStudent() != null) {
+            response.put("studentId", user.getStudent().getId());
         }
 
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,4 @@
+package edu.icet.dto;
+
+public record ArchiveReport(int classes, long rows, long bytes, long elapsedMillis) {
+}
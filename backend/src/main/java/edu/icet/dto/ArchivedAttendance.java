@@ -0,0 +1,9 @@
+package edu.icet.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One attendance row as held in the archive of an ended class.
+ */
+public record ArchivedAttendance(Integer id, Integer studentId, Integer classId, LocalDate date, boolean present, String notes) {
+}
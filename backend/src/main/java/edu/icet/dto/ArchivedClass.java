@@ -0,0 +1,43 @@
+package edu.icet.dto;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * A class whose attendance has been moved out of the Attendance table into its archive file.
+ * The row is inserted in the same transaction that deletes the attendance rows, so it is what
+ * makes a written file count.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "AttendanceArchive")
+public class ArchivedClass {
+    @Id
+    @Column(name = "class_id")
+    private Integer classId;
+
+    @Column(nullable = false)
+    private int rowCount;
+
+    @Column(nullable = false)
+    private int presentCount;
+
+    @Temporal(TemporalType.DATE)
+    private Date firstDate;
+
+    @Temporal(TemporalType.DATE)
+    private Date lastDate;
+
+    @Column(nullable = false)
+    private long fileBytes;
+
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date archivedAt;
+}
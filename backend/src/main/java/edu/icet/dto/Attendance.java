@@ -11,18 +11,21 @@ import java.util.Date;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "Attendance")
+@Table(name = "Attendance",
+        uniqueConstraints = @UniqueConstraint(name = "uk_attendance_session", columnNames = {"class_id", "date", "student_id"}))
 public class Attendance {
 
+    // Pooled allocation hands out ids 50 at a time so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attendance_seq")
+    @SequenceGenerator(name = "attendance_seq", sequenceName = "attendance_seq", allocationSize = 50)
     private Integer id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
     private Student student;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "class_id", nullable = false)
     private Class classAttended;
 
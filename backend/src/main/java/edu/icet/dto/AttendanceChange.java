@@ -0,0 +1,5 @@
+package edu.icet.dto;
+
+public enum AttendanceChange {
+    CREATED, UPDATED, UNCHANGED, REMOVED
+}
@@ -0,0 +1,20 @@
+package edu.icet.dto;
+
+/**
+ * A change to apply to one student's running counts for one class.
+ */
+public record AttendanceDelta(Integer studentId, Integer classId, int present, int total) {
+
+    public static AttendanceDelta added(Attendance attendance) {
+        return of(attendance, 1);
+    }
+
+    public static AttendanceDelta removed(Attendance attendance) {
+        return of(attendance, -1);
+    }
+
+    private static AttendanceDelta of(Attendance attendance, int sign) {
+        int present = Boolean.TRUE.equals(attendance.getPresent()) ? sign : 0;
+        return new AttendanceDelta(attendance.getStudent().getId(), attendance.getClassAttended().getId(), present, sign);
+    }
+}
@@ -0,0 +1,42 @@
+package edu.icet.dto;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Running present/total session counts per student and class, kept in step with
+ * the Attendance table by the attendance write paths.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "AttendanceSummary")
+@IdClass(AttendanceSummary.Key.class)
+public class AttendanceSummary {
+    @Id
+    @Column(name = "student_id")
+    private Integer studentId;
+
+    @Id
+    @Column(name = "class_id")
+    private Integer classId;
+
+    @Column(nullable = false)
+    private long presentCount;
+
+    @Column(nullable = false)
+    private long totalCount;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Integer studentId;
+        private Integer classId;
+    }
+}
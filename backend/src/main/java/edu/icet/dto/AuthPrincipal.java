@@ -0,0 +1,15 @@
+package edu.icet.dto;
+
+import java.time.Instant;
+
+/**
+ * The caller as described by a verified access token, so handlers can authorise without a user lookup.
+ */
+public record AuthPrincipal(Integer userId, String username, String role, Integer studentId, Instant expiresAt) {
+    // A literal rather than the class name, so it can be used in annotations
+    public static final String REQUEST_ATTRIBUTE = "edu.icet.dto.AuthPrincipal";
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+}
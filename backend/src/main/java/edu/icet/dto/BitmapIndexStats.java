@@ -0,0 +1,4 @@
+package edu.icet.dto;
+
+public record BitmapIndexStats(boolean enabled, boolean ready, int classes, int sessions, long sizeInBytes, long maxBytes) {
+}
@@ -0,0 +1,34 @@
+package edu.icet.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A committed write, as pushed to {@code /events} subscribers: just enough ids for a client to tell
+ * whether what it shows is affected and refetch it. Published from the service write paths and
+ * delivered only once their transaction commits.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeEvent(@JsonIgnore ChangeTopic topic, String type, Integer classId, LocalDate date,
+                          List<Integer> studentIds, List<Integer> requestIds) {
+
+    public static ChangeEvent requestCreated(Integer requestId, Integer classId, Integer studentId) {
+        return new ChangeEvent(ChangeTopic.REQUESTS, "request.created", classId, null, List.of(studentId), List.of(requestId));
+    }
+
+    public static ChangeEvent requestsDecided(RequestStatus status, Integer classId, List<Integer> studentIds, List<Integer> requestIds) {
+        String type = status == RequestStatus.APPROVED ? "request.approved" : "request.rejected";
+        return new ChangeEvent(ChangeTopic.REQUESTS, type, classId, null, List.copyOf(studentIds), List.copyOf(requestIds));
+    }
+
+    public static ChangeEvent attendanceMarked(Integer classId, LocalDate date, List<Integer> studentIds) {
+        return new ChangeEvent(ChangeTopic.ATTENDANCE, "attendance.marked", classId, date, List.copyOf(studentIds), null);
+    }
+
+    public static ChangeEvent enrolmentChanged(Integer classId, List<Integer> studentIds) {
+        return new ChangeEvent(ChangeTopic.ENROLMENT, "enrolment.changed", classId, null, List.copyOf(studentIds), null);
+    }
+}
@@ -0,0 +1,15 @@
+package edu.icet.dto;
+
+import java.util.Locale;
+
+public enum ChangeTopic {
+    REQUESTS, ATTENDANCE, ENROLMENT;
+
+    public static ChangeTopic parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown topic: " + value);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package edu.icet.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One accepted self check-in, waiting to be written to the Attendance table as a present mark.
+ */
+public record CheckIn(Integer classId, LocalDate date, Integer studentId) {
+}
@@ -0,0 +1,7 @@
+package edu.icet.dto;
+
+public enum CheckInOutcome {
+    ACCEPTED, ALREADY_CHECKED_IN, NOT_ENROLLED, UNKNOWN_CODE, EXPIRED,
+    // The write-behind queue is full; the student should try again shortly
+    BUSY
+}
@@ -0,0 +1,5 @@
+package edu.icet.dto;
+
+// The student is the caller, taken from the access token rather than the body
+public record CheckInRequest(String code) {
+}
@@ -0,0 +1,12 @@
+package edu.icet.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A check-in window as shown to the lecturer: the code students enter, and how many of the
+ * enrolled students have checked in so far.
+ */
+public record CheckInSession(String code, Integer classId, LocalDate date, Instant expiresAt, boolean open,
+                             int enrolled, int checkedIn) {
+}
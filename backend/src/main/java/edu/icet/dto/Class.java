@@ -1,7 +1,11 @@
 package edu.icet.dto;
 
+import edu.icet.config.CatalogCache;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Date;
 import java.util.HashSet;
@@ -14,6 +18,8 @@ import java.util.Set;
 @NoArgsConstructor
 @Entity
 @Table(name = "Class")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCache.CLASS_REGION)
 public class Class {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -33,7 +39,25 @@ public class Class {
     @Temporal(TemporalType.DATE)
     private Date endDate;
 
+    // Seats on offer; null means no limit
+    private Integer maxStudents;
+
+    // Enrolled students plus students holding a pending request. Only ever changed in SQL by the enrolment
+    // and request paths, under the class row lock, so Hibernate neither inserts nor updates it
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer seatsTaken;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer version;
+
+    // Left out of equals/hashCode/toString, which would otherwise walk the roster and back through Student.classes
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCache.ENROLMENT_REGION)
     @JoinTable(
             name = "class_student",
             joinColumns = @JoinColumn(name = "class_id"),
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Date;
 
@@ -11,17 +12,25 @@ import java.util.Date;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "ClassRequest")
+@Table(name = "ClassRequest",
+        indexes = @Index(name = "idx_class_request_status", columnList = "status"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_class_request_pending", columnNames = {"student_id", "class_id", "pending_lock"}))
+@NamedEntityGraph(name = ClassRequest.WITH_STUDENT_AND_CLASS, attributeNodes = {
+        @NamedAttributeNode("student"),
+        @NamedAttributeNode("requestedClass")
+})
 public class ClassRequest {
+    public static final String WITH_STUDENT_AND_CLASS = "ClassRequest.withStudentAndClass";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Integer id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
     private Student student;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "class_id", nullable = false)
     private Class requestedClass;
 
@@ -29,11 +38,23 @@ public class ClassRequest {
     @Temporal(TemporalType.TIMESTAMP)
     private Date requestDate;
 
-    @Column(nullable = false)
-    private String status; // "PENDING", "APPROVED", "REJECTED"
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RequestStatus status;
 
     @Temporal(TemporalType.TIMESTAMP)
     private Date responseDate;
 
     private String responseNotes;
+
+    // 1 while pending and NULL once decided. MySQL has no partial indexes, but a unique key allows any number
+    // of NULLs, so the key above admits one pending request per student and class and any number of decided ones
+    @Column(name = "pending_lock", insertable = false, updatable = false,
+            columnDefinition = "tinyint GENERATED ALWAYS AS (CASE WHEN status = 'PENDING' THEN 1 END)")
+    private Integer pendingLock;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer version;
 }
\ No newline at end of file
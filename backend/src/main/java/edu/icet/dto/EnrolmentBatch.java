@@ -0,0 +1,10 @@
+package edu.icet.dto;
+
+import java.util.List;
+
+public record EnrolmentBatch(Action action, List<Integer> studentIds) {
+
+    public enum Action {
+        ENROL, UNENROL
+    }
+}
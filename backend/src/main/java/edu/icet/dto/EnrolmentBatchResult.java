@@ -0,0 +1,11 @@
+package edu.icet.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk enrol/unenrol: ids whose enrolment changed, ids that were already in the
+ * requested state, and ids that don't belong to any student.
+ */
+public record EnrolmentBatchResult(Integer classId, EnrolmentBatch.Action action,
+                                   List<Integer> changed, List<Integer> unchanged, List<Integer> unknown) {
+}
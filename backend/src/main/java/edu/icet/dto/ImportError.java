@@ -0,0 +1,7 @@
+package edu.icet.dto;
+
+/**
+ * A rejected CSV row; {@code row} counts data rows from 1, not including the header.
+ */
+public record ImportError(long row, String message) {
+}
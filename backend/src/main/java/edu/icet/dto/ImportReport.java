@@ -0,0 +1,11 @@
+package edu.icet.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of one CSV import. {@code errors} holds the first rejected rows only, up to the
+ * configured limit; {@code rejected} counts them all.
+ */
+public record ImportReport(String entity, long rowsRead, long imported, long rejected, List<ImportError> errors,
+                           boolean aborted, long elapsedMillis, long rowsPerSecond) {
+}
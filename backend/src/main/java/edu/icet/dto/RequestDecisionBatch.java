@@ -0,0 +1,13 @@
+package edu.icet.dto;
+
+import java.util.List;
+
+/**
+ * Approves or rejects many class requests at once; {@code action} defaults to approving.
+ */
+public record RequestDecisionBatch(Action action, List<Integer> requestIds, String notes) {
+
+    public enum Action {
+        APPROVE, REJECT
+    }
+}
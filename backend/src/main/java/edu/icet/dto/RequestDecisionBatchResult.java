@@ -0,0 +1,11 @@
+package edu.icet.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk approve/reject: ids that were decided now, ids that had already been decided,
+ * and ids that don't belong to any request.
+ */
+public record RequestDecisionBatchResult(RequestDecisionBatch.Action action,
+                                         List<Integer> decided, List<Integer> notPending, List<Integer> unknown) {
+}
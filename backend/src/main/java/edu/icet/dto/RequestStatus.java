@@ -0,0 +1,15 @@
+package edu.icet.dto;
+
+import java.util.Locale;
+
+public enum RequestStatus {
+    PENDING, APPROVED, REJECTED;
+
+    public static RequestStatus parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown request status: " + value);
+        }
+    }
+}
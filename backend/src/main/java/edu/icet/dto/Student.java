@@ -1,9 +1,16 @@
 package edu.icet.dto;
 
+import edu.icet.config.CatalogCache;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
@@ -13,6 +20,8 @@ import java.util.Set;
 @NoArgsConstructor
 @Entity
 @Table(name = "Student")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCache.STUDENT_REGION)
 public class Student {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -29,10 +38,17 @@ public class Student {
     private String nic;
     private String contact;
 
-    @Lob
-    @Column(name = "profilePic", columnDefinition = "LONGBLOB")
-    private byte[] profilePic;
+    @Column(name = "profile_pic_hash", length = 64)
+    private String profilePicHash;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer version;
     
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToMany(mappedBy = "students")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCache.ENROLMENT_REGION)
     private Set<Class> classes = new HashSet<>();
 }
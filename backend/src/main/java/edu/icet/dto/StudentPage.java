@@ -0,0 +1,11 @@
+package edu.icet.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the keyset-paginated student listing. {@code nextCursor} is the
+ * value to pass as {@code after} for the next page, or null on the last page.
+ */
+public record StudentPage(List<Map<String, Object>> items, Integer nextCursor) {
+}
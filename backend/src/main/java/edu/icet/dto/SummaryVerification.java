@@ -0,0 +1,4 @@
+package edu.icet.dto;
+
+public record SummaryVerification(int chunks, long mismatches, long elapsedMillis) {
+}
@@ -1,5 +1,6 @@
 package edu.icet.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,7 +11,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Entity
 @Table(name = "User")
+@NamedEntityGraph(name = User.WITH_STUDENT, attributeNodes = @NamedAttributeNode("student"))
 public class User {
+    public static final String WITH_STUDENT = "User.withStudent";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Integer id;
@@ -18,13 +22,15 @@ public class User {
     @Column(unique = true, nullable = false)
     private String username;
 
+    // BCrypt hash; accepted on writes but never serialised
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
 
     @Column(nullable = false)
     private String role; // "ADMIN" or "STUDENT"
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id")
     private Student student;
 }
\ No newline at end of file
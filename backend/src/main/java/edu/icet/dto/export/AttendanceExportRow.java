@@ -0,0 +1,16 @@
+package edu.icet.dto.export;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+public record AttendanceExportRow(Integer id, Integer studentId, Integer classId, LocalDate date, Boolean present) {
+
+    // Target of the JPQL constructor expression, which passes the entity's Date
+    public AttendanceExportRow(Integer id, Integer studentId, Integer classId, Date date, Boolean present) {
+        this(id, studentId, classId, ExportRows.toLocalDate(date), present);
+    }
+
+    public Object[] columns() {
+        return new Object[]{id, studentId, classId, date, present};
+    }
+}
@@ -0,0 +1,21 @@
+package edu.icet.dto.export;
+
+import edu.icet.dto.RequestStatus;
+
+import java.time.Instant;
+import java.util.Date;
+
+public record ClassRequestExportRow(Integer id, Integer studentId, Integer classId, Instant requestDate, String status,
+                                    Instant responseDate, String responseNotes) {
+
+    // Target of the JPQL constructor expression, which passes the entity's Dates
+    public ClassRequestExportRow(Integer id, Integer studentId, Integer classId, Date requestDate, RequestStatus status,
+                                 Date responseDate, String responseNotes) {
+        this(id, studentId, classId, ExportRows.toInstant(requestDate), status.name(), ExportRows.toInstant(responseDate),
+                responseNotes);
+    }
+
+    public Object[] columns() {
+        return new Object[]{id, studentId, classId, requestDate, status, responseDate, responseNotes};
+    }
+}
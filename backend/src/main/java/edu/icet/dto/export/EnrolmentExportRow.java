@@ -0,0 +1,8 @@
+package edu.icet.dto.export;
+
+public record EnrolmentExportRow(Integer classId, Integer studentId) {
+
+    public Object[] columns() {
+        return new Object[]{classId, studentId};
+    }
+}
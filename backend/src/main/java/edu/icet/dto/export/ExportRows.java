@@ -0,0 +1,26 @@
+package edu.icet.dto.export;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+final class ExportRows {
+
+    private ExportRows() {
+    }
+
+    static LocalDate toLocalDate(Date date) {
+        if (date == null) {
+            return null;
+        }
+        if (date instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    static Instant toInstant(Date date) {
+        return date != null ? Instant.ofEpochMilli(date.getTime()) : null;
+    }
+}
@@ -0,0 +1,12 @@
+package edu.icet.dto.projection;
+
+/**
+ * Present and total session counts grouped by one key, either a class id or a student id.
+ */
+public interface AttendanceTally {
+    Integer getId();
+
+    Long getPresent();
+
+    Long getTotal();
+}
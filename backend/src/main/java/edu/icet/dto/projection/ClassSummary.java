@@ -0,0 +1,17 @@
+package edu.icet.dto.projection;
+
+import java.util.Date;
+
+public interface ClassSummary {
+    Integer getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getSchedule();
+
+    Date getStartDate();
+
+    Date getEndDate();
+}
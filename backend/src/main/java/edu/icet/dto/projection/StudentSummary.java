@@ -0,0 +1,21 @@
+package edu.icet.dto.projection;
+
+import java.util.Date;
+
+public interface StudentSummary {
+    Integer getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getAddress();
+
+    Date getDob();
+
+    String getNic();
+
+    String getContact();
+
+    String getProfilePicHash();
+}
@@ -0,0 +1,17 @@
+package edu.icet.dto.projection;
+
+/**
+ * Aggregate fingerprint of a set of versioned rows. Inserting, deleting or updating any of them
+ * changes at least one of the three values, so it stands in for the rows when computing an ETag.
+ */
+public interface VersionStamp {
+    Long getRowCount();
+
+    Long getIdSum();
+
+    Long getVersionSum();
+
+    default String token() {
+        return getRowCount() + "." + getIdSum() + "." + getVersionSum();
+    }
+}
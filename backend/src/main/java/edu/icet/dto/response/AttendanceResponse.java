@@ -0,0 +1,14 @@
+package edu.icet.dto.response;
+
+import java.util.Date;
+
+public record AttendanceResponse(Integer id, StudentRef student, ClassRef classAttended, Date date,
+                                 Boolean present, String notes) {
+
+    // Target of the JPQL constructor expression, which can only pass flat values
+    public AttendanceResponse(Integer id, Integer studentId, String studentFirstName, String studentLastName,
+                              Integer classId, String className, Date date, Boolean present, String notes) {
+        this(id, new StudentRef(studentId, studentFirstName, studentLastName), new ClassRef(classId, className),
+                date, present, notes);
+    }
+}
@@ -0,0 +1,13 @@
+package edu.icet.dto.response;
+
+import edu.icet.dto.Class;
+
+/**
+ * A class as embedded in other responses.
+ */
+public record ClassRef(Integer id, String name) {
+
+    public static ClassRef from(Class classObj) {
+        return new ClassRef(classObj.getId(), classObj.getName());
+    }
+}
@@ -0,0 +1,24 @@
+package edu.icet.dto.response;
+
+import edu.icet.dto.ClassRequest;
+import edu.icet.dto.RequestStatus;
+
+import java.util.Date;
+
+public record ClassRequestResponse(Integer id, StudentRef student, ClassRef requestedClass, Date requestDate,
+                                   RequestStatus status, Date responseDate, String responseNotes, Integer version) {
+
+    // Target of the JPQL constructor expression, which can only pass flat values
+    public ClassRequestResponse(Integer id, Integer studentId, String studentFirstName, String studentLastName,
+                                Integer classId, String className, Date requestDate, RequestStatus status,
+                                Date responseDate, String responseNotes, Integer version) {
+        this(id, new StudentRef(studentId, studentFirstName, studentLastName), new ClassRef(classId, className),
+                requestDate, status, responseDate, responseNotes, version);
+    }
+
+    public static ClassRequestResponse from(ClassRequest request) {
+        return new ClassRequestResponse(request.getId(), StudentRef.from(request.getStudent()),
+                ClassRef.from(request.getRequestedClass()), request.getRequestDate(), request.getStatus(),
+                request.getResponseDate(), request.getResponseNotes(), request.getVersion());
+    }
+}
@@ -0,0 +1,17 @@
+package edu.icet.dto.response;
+
+import edu.icet.dto.Class;
+
+import java.util.Date;
+
+/**
+ * A class without its roster, which has its own endpoint.
+ */
+public record ClassResponse(Integer id, String name, String description, String schedule,
+                            Date startDate, Date endDate, Integer maxStudents, Integer seatsTaken, Integer version) {
+
+    public static ClassResponse from(Class classObj) {
+        return new ClassResponse(classObj.getId(), classObj.getName(), classObj.getDescription(), classObj.getSchedule(),
+                classObj.getStartDate(), classObj.getEndDate(), classObj.getMaxStudents(), classObj.getSeatsTaken(), classObj.getVersion());
+    }
+}
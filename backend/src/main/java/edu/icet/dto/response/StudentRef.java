@@ -0,0 +1,13 @@
+package edu.icet.dto.response;
+
+import edu.icet.dto.Student;
+
+/**
+ * A student as embedded in other responses: enough to show and link it, nothing more.
+ */
+public record StudentRef(Integer id, String fName, String lName) {
+
+    public static StudentRef from(Student student) {
+        return new StudentRef(student.getId(), student.getFName(), student.getLName());
+    }
+}
@@ -0,0 +1,10 @@
+package edu.icet.dto.response;
+
+import java.util.Date;
+
+/**
+ * A student's own fields, without the classes they are enrolled in.
+ */
+public record StudentResponse(Integer id, String fName, String lName, String address, Date dob,
+                              String nic, String contact, String profilePicHash, Integer version) {
+}
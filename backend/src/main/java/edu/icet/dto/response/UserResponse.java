@@ -0,0 +1,14 @@
+package edu.icet.dto.response;
+
+import edu.icet.dto.User;
+
+/**
+ * A user account without its password hash. The student must already be loaded.
+ */
+public record UserResponse(Integer id, String username, String role, StudentRef student) {
+
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getUsername(), user.getRole(),
+                user.getStudent() != null ? StudentRef.from(user.getStudent()) : null);
+    }
+}
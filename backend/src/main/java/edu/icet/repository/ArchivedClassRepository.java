@@ -0,0 +1,14 @@
+package edu.icet.repository;
+
+import edu.icet.dto.ArchivedClass;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedClassRepository extends JpaRepository<ArchivedClass, Integer> {
+    @Query("SELECT a.classId FROM ArchivedClass a")
+    List<Integer> findAllClassIds();
+}
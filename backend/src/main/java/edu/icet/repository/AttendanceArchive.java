@@ -0,0 +1,182 @@
+package edu.icet.repository;
+
+import edu.icet.dto.ArchivedAttendance;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Attendance of ended classes, moved out of the Attendance table into one
+ * {@link AttendanceArchiveFile} per class. Every archived class registered in the AttendanceArchive
+ * table is mapped at startup; reads go straight to the mappings and never reach MySQL. A registered file
+ * that cannot be opened is logged and its class reported as unavailable rather than failing startup.
+ * <p>
+ * Mapped classes are published as {@code attendance.archive.classes}, their file sizes as
+ * {@code attendance.archive.bytes} and the unavailable ones as {@code attendance.archive.unavailable}.
+ */
+@Slf4j
+@Component
+public class AttendanceArchive {
+
+    private final Path dir;
+    private final Map<Integer, AttendanceArchiveFile> files = new ConcurrentHashMap<>();
+    private final Set<Integer> unavailable = ConcurrentHashMap.newKeySet();
+    // Non-empty files by their lowest id, for findById
+    private volatile NavigableMap<Integer, AttendanceArchiveFile> byLowestId = new TreeMap<>();
+
+    public AttendanceArchive(ArchivedClassRepository archivedClassRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.attendance.archive.dir:data/archive}") String dir) {
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            log.error("Could not create the attendance archive directory {}", this.dir, e);
+        }
+        // Files without a registry row are left over from a run that rolled back, and are overwritten by the next
+        for (Integer classId : archivedClassRepository.findAllClassIds()) {
+            try {
+                files.put(classId, AttendanceArchiveFile.open(pathOf(classId)));
+            } catch (IOException e) {
+                // Its rows have left the Attendance table, so the class reads as empty until the file is restored
+                log.error("Attendance archive of class {} is unavailable: could not open {}", classId, pathOf(classId), e);
+                unavailable.add(classId);
+            }
+        }
+        reindex();
+
+        Gauge.builder("attendance.archive.classes", files, Map::size)
+                .description("Classes whose attendance is served from the archive")
+                .register(meterRegistry);
+        Gauge.builder("attendance.archive.unavailable", unavailable, Set::size)
+                .description("Archived classes whose file could not be opened")
+                .register(meterRegistry);
+        Gauge.builder("attendance.archive.bytes", files, all -> all.values().stream().mapToLong(AttendanceArchiveFile::sizeInBytes).sum())
+                .description("Size of the mapped attendance archive files")
+                .register(meterRegistry);
+        log.info("Attendance archive at {} holds {} classes", this.dir, files.size());
+    }
+
+    /**
+     * Whether the class's attendance has left the Attendance table, including when its file is unavailable.
+     */
+    public boolean isArchived(Integer classId) {
+        return files.containsKey(classId) || unavailable.contains(classId);
+    }
+
+    /**
+     * Writes the class's rows to its archive file and serves them from there straight away. Meant to be
+     * called in the transaction that deletes the rows from the Attendance table: readers skip archived
+     * rows whose id they also got from the table, and if the transaction rolls back the file stops being served.
+     * Returns the size of the file.
+     */
+    public long store(Integer classId, List<ArchivedAttendance> rows) throws IOException {
+        Path path = pathOf(classId);
+        long bytes = AttendanceArchiveFile.write(path, classId, rows);
+        files.put(classId, AttendanceArchiveFile.open(path));
+        reindex();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        files.remove(classId);
+                        reindex();
+                    }
+                }
+            });
+        }
+        return bytes;
+    }
+
+    /**
+     * Only files whose id range covers {@code id} are searched.
+     */
+    public Optional<ArchivedAttendance> findById(Integer id) {
+        for (AttendanceArchiveFile file : byLowestId.headMap(id, true).values()) {
+            if (file.highestId() >= id) {
+                Optional<ArchivedAttendance> row = file.findById(id);
+                if (row.isPresent()) {
+                    return row;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<ArchivedAttendance> findByStudent(Integer studentId) {
+        List<ArchivedAttendance> rows = new ArrayList<>();
+        for (AttendanceArchiveFile file : files.values()) {
+            rows.addAll(file.findByStudent(studentId));
+        }
+        return rows;
+    }
+
+    public List<ArchivedAttendance> findByClass(Integer classId) {
+        AttendanceArchiveFile file = files.get(classId);
+        return file != null ? file.stream(null, null).toList() : List.of();
+    }
+
+    public List<ArchivedAttendance> findByStudentAndClass(Integer studentId, Integer classId) {
+        AttendanceArchiveFile file = files.get(classId);
+        return file != null ? file.findByStudent(studentId) : List.of();
+    }
+
+    public List<ArchivedAttendance> findByDate(LocalDate date) {
+        List<ArchivedAttendance> rows = new ArrayList<>();
+        for (AttendanceArchiveFile file : files.values()) {
+            rows.addAll(file.findByDate(date));
+        }
+        return rows;
+    }
+
+    public List<ArchivedAttendance> findByClassAndDate(Integer classId, LocalDate date) {
+        AttendanceArchiveFile file = files.get(classId);
+        return file != null ? file.findByDate(date) : List.of();
+    }
+
+    /**
+     * Archived rows of one class, or of all of them when {@code classId} is null, lazily and class by class.
+     */
+    public Stream<ArchivedAttendance> stream(Integer classId, LocalDate from, LocalDate to) {
+        Collection<AttendanceArchiveFile> selected = classId == null ? List.copyOf(files.values())
+                : Optional.ofNullable(files.get(classId)).stream().toList();
+        return selected.stream().flatMap(file -> file.stream(from, to));
+    }
+
+    // Files change once per archive run at most, so the index is rebuilt rather than kept in step
+    private synchronized void reindex() {
+        NavigableMap<Integer, AttendanceArchiveFile> index = new TreeMap<>();
+        for (AttendanceArchiveFile file : files.values()) {
+            if (file.rowCount() > 0) {
+                index.put(file.lowestId(), file);
+            }
+        }
+        byLowestId = index;
+    }
+
+    private Path pathOf(Integer classId) {
+        return dir.resolve("class-" + classId + ".att");
+    }
+}
@@ -0,0 +1,273 @@
+package edu.icet.repository;
+
+import edu.icet.dto.ArchivedAttendance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The archived attendance of one class, stored column by column and read through a memory mapping,
+ * so only the pages a query touches are ever loaded and the OS may drop them again under pressure.
+ * <pre>
+ * header     magic, class id, rows, dates, notes, lowest id, highest id   7 ints
+ * dates      epoch days, ascending                                       one int per session
+ * students   student ids, ascending                                      one int per row
+ * sessions   index into the dates                                        one unsigned short per row
+ * ids        original attendance ids                                     one int per row
+ * present    one bit per row                                             longs
+ * notes      row, byte length, UTF-8 bytes                               only for rows that have notes
+ * </pre>
+ * Rows are ordered by student, then date, then id, so a student's rows are one binary search away.
+ * A row costs ten bytes and a bit.
+ */
+public final class AttendanceArchiveFile {
+
+    private static final int MAGIC = 0x41545431;
+    private static final int HEADER_INTS = 7;
+    private static final int MAX_SESSIONS = 0xFFFF;
+
+    private static final Comparator<ArchivedAttendance> ROW_ORDER = Comparator.comparing(ArchivedAttendance::studentId)
+            .thenComparing(ArchivedAttendance::date)
+            .thenComparing(ArchivedAttendance::id);
+
+    private final MappedByteBuffer buffer;
+    private final int classId;
+    private final int rows;
+    private final int minId;
+    private final int maxId;
+    private final int[] dates;
+    private final int studentsOffset;
+    private final int sessionsOffset;
+    private final int idsOffset;
+    private final int presentOffset;
+    private final Map<Integer, String> notes;
+
+    private AttendanceArchiveFile(Path path, MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_INTS * Integer.BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not an attendance archive file");
+        }
+        this.classId = buffer.getInt(4);
+        this.rows = buffer.getInt(8);
+        int dateCount = buffer.getInt(12);
+        int noteCount = buffer.getInt(16);
+        this.minId = buffer.getInt(20);
+        this.maxId = buffer.getInt(24);
+
+        // The dictionary is a few hundred ints at most, so it is read onto the heap once
+        int offset = HEADER_INTS * Integer.BYTES;
+        this.dates = new int[dateCount];
+        for (int i = 0; i < dateCount; i++, offset += Integer.BYTES) {
+            dates[i] = buffer.getInt(offset);
+        }
+        this.studentsOffset = offset;
+        this.sessionsOffset = studentsOffset + rows * Integer.BYTES;
+        this.idsOffset = sessionsOffset + rows * Character.BYTES;
+        this.presentOffset = idsOffset + rows * Integer.BYTES;
+
+        offset = presentOffset + presentWords(rows) * Long.BYTES;
+        this.notes = new HashMap<>();
+        for (int i = 0; i < noteCount; i++) {
+            int row = buffer.getInt(offset);
+            int length = buffer.getInt(offset + Integer.BYTES);
+            byte[] bytes = new byte[length];
+            buffer.get(offset + 2 * Integer.BYTES, bytes);
+            notes.put(row, new String(bytes, StandardCharsets.UTF_8));
+            offset += 2 * Integer.BYTES + length;
+        }
+    }
+
+    public static AttendanceArchiveFile open(Path path) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new AttendanceArchiveFile(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the rows as the archive of {@code classId}, replacing {@code target} atomically once the
+     * new file is on disk. Returns the size of the file.
+     */
+    public static long write(Path target, int classId, List<ArchivedAttendance> rows) throws IOException {
+        List<ArchivedAttendance> sorted = new ArrayList<>(rows);
+        sorted.sort(ROW_ORDER);
+        int[] dates = sorted.stream().mapToInt(row -> (int) row.date().toEpochDay()).distinct().sorted().toArray();
+        if (dates.length > MAX_SESSIONS) {
+            throw new IllegalArgumentException("Class " + classId + " has more than " + MAX_SESSIONS + " sessions");
+        }
+
+        List<Integer> noteRows = new ArrayList<>();
+        List<byte[]> noteBytes = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            String note = sorted.get(i).notes();
+            if (note != null) {
+                noteRows.add(i);
+                noteBytes.add(note.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int size = sorted.size();
+        long bytes = (long) (HEADER_INTS + dates.length) * Integer.BYTES
+                + (long) size * (2 * Integer.BYTES + Character.BYTES)
+                + (long) presentWords(size) * Long.BYTES
+                + noteBytes.stream().mapToLong(note -> 2L * Integer.BYTES + note.length).sum();
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Attendance of class " + classId + " is too large for one archive file");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) bytes);
+        out.putInt(MAGIC).putInt(classId).putInt(size).putInt(dates.length).putInt(noteRows.size())
+                .putInt(sorted.stream().mapToInt(ArchivedAttendance::id).min().orElse(0))
+                .putInt(sorted.stream().mapToInt(ArchivedAttendance::id).max().orElse(-1));
+        for (int date : dates) {
+            out.putInt(date);
+        }
+        for (ArchivedAttendance row : sorted) {
+            out.putInt(row.studentId());
+        }
+        for (ArchivedAttendance row : sorted) {
+            out.putChar((char) Arrays.binarySearch(dates, (int) row.date().toEpochDay()));
+        }
+        for (ArchivedAttendance row : sorted) {
+            out.putInt(row.id());
+        }
+        long[] present = new long[presentWords(size)];
+        for (int i = 0; i < size; i++) {
+            if (sorted.get(i).present()) {
+                present[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+        for (long word : present) {
+            out.putLong(word);
+        }
+        for (int i = 0; i < noteRows.size(); i++) {
+            out.putInt(noteRows.get(i)).putInt(noteBytes.get(i).length).put(noteBytes.get(i));
+        }
+        out.flip();
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return bytes;
+    }
+
+    public int classId() {
+        return classId;
+    }
+
+    public int lowestId() {
+        return minId;
+    }
+
+    public int highestId() {
+        return maxId;
+    }
+
+    public int rowCount() {
+        return rows;
+    }
+
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    public List<ArchivedAttendance> findByStudent(int studentId) {
+        List<ArchivedAttendance> result = new ArrayList<>();
+        for (int row = firstRowOf(studentId); row < rows && studentAt(row) == studentId; row++) {
+            result.add(row(row));
+        }
+        return result;
+    }
+
+    public List<ArchivedAttendance> findByDate(LocalDate date) {
+        int session = Arrays.binarySearch(dates, (int) date.toEpochDay());
+        if (session < 0) {
+            return List.of();
+        }
+        List<ArchivedAttendance> result = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            if (buffer.getChar(sessionsOffset + row * Character.BYTES) == session) {
+                result.add(row(row));
+            }
+        }
+        return result;
+    }
+
+    public Optional<ArchivedAttendance> findById(int id) {
+        if (id < minId || id > maxId) {
+            return Optional.empty();
+        }
+        for (int row = 0; row < rows; row++) {
+            if (buffer.getInt(idsOffset + row * Integer.BYTES) == id) {
+                return Optional.of(row(row));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * All rows, optionally limited to a date range; sessions outside it are skipped without being read.
+     */
+    public Stream<ArchivedAttendance> stream(LocalDate from, LocalDate to) {
+        if (dates.length == 0
+                || from != null && dates[dates.length - 1] < from.toEpochDay()
+                || to != null && dates[0] > to.toEpochDay()) {
+            return Stream.empty();
+        }
+        return IntStream.range(0, rows).mapToObj(this::row)
+                .filter(row -> (from == null || !row.date().isBefore(from)) && (to == null || !row.date().isAfter(to)));
+    }
+
+    private ArchivedAttendance row(int row) {
+        int session = buffer.getChar(sessionsOffset + row * Character.BYTES);
+        boolean present = (buffer.getLong(presentOffset + (row >>> 6) * Long.BYTES) >>> (row & 63) & 1L) != 0;
+        return new ArchivedAttendance(buffer.getInt(idsOffset + row * Integer.BYTES), studentAt(row), classId,
+                LocalDate.ofEpochDay(dates[session]), present, notes.get(row));
+    }
+
+    private int studentAt(int row) {
+        return buffer.getInt(studentsOffset + row * Integer.BYTES);
+    }
+
+    // Lowest row of the student, or of the next student up when the student has none
+    private int firstRowOf(int studentId) {
+        int lo = 0;
+        int hi = rows;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (studentAt(mid) < studentId) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int presentWords(int rows) {
+        return (rows + 63) >>> 6;
+    }
+}
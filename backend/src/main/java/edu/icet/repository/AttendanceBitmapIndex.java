@@ -0,0 +1,371 @@
+package edu.icet.repository;
+
+import edu.icet.dto.ArchivedAttendance;
+import edu.icet.dto.Attendance;
+import edu.icet.dto.BitmapIndexStats;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-process index of attendance: one pair of compressed bitmaps of student ids per
+ * (class, date) session, one for everyone recorded and one for those present. Answers the
+ * presence questions of dashboards with bitwise operations instead of MySQL queries.
+ * <p>
+ * Warmed from the Attendance table and the attendance archive at startup and kept current by the attendance write paths
+ * once their transaction commits; writes committing during the warm-up are replayed when it ends. If it outgrows its
+ * memory budget, while warming or later, it drops its contents and reports itself not ready, and callers fall back
+ * to the database.
+ */
+@Slf4j
+@Component
+public class AttendanceBitmapIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceArchive attendanceArchive;
+    private final boolean enabled;
+    private final long maxBytes;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, NavigableMap<LocalDate, Session>> sessionsByClass = new HashMap<>();
+    private final List<Runnable> pending = new ArrayList<>();
+    private long sizeInBytes;
+    private volatile boolean ready;
+    private boolean warming;
+
+    public AttendanceBitmapIndex(JdbcTemplate jdbcTemplate,
+                                 AttendanceArchive attendanceArchive,
+                                 @Value("${app.attendance.bitmap-index.enabled:false}") boolean enabled,
+                                 @Value("${app.attendance.bitmap-index.max-bytes:67108864}") long maxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.attendanceArchive = attendanceArchive;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        write(() -> {
+            ready = false;
+            sessionsByClass.clear();
+            sizeInBytes = 0;
+            synchronized (pending) {
+                warming = true;
+            }
+            try {
+                jdbcTemplate.query("SELECT class_id, date, student_id, present FROM attendance", rs -> {
+                    load(rs.getInt("class_id"), rs.getDate("date").toLocalDate(), rs.getInt("student_id"), rs.getBoolean("present"));
+                });
+                try (Stream<ArchivedAttendance> archived = attendanceArchive.stream(null, null, null)) {
+                    archived.forEach(row -> load(row.classId(), row.date(), row.studentId(), row.present()));
+                }
+            } catch (OverBudgetException e) {
+                log.warn("Attendance bitmap index passed its {} byte budget while warming; disabling it", maxBytes);
+                sessionsByClass.clear();
+                sizeInBytes = 0;
+                synchronized (pending) {
+                    pending.clear();
+                    warming = false;
+                }
+                return null;
+            }
+
+            sizeInBytes = 0;
+            sessionsByClass.values().forEach(sessions -> sessions.values().forEach(session -> {
+                session.optimize();
+                sizeInBytes += session.sizeInBytes();
+            }));
+            // Writes that committed while the tables were read; replaying one the read already saw changes nothing
+            synchronized (pending) {
+                pending.forEach(Runnable::run);
+                pending.clear();
+                warming = false;
+                ready = true;
+            }
+            checkBudget();
+            return null;
+        });
+
+        if (ready) {
+            log.info("Attendance bitmap index warmed in {} ms: {}", System.currentTimeMillis() - start, stats());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replaces the whole (class, date) session with the given presence map once the current transaction commits.
+     */
+    public void replaceSession(Integer classId, Date date, Map<Integer, Boolean> presence) {
+        LocalDate day = toLocalDate(date);
+        afterCommit(() -> {
+            Session replacement = new Session();
+            presence.forEach((studentId, present) -> replacement.set(studentId, Boolean.TRUE.equals(present)));
+            replacement.optimize();
+
+            Session previous = sessionsByClass.computeIfAbsent(classId, id -> new TreeMap<>()).put(day, replacement);
+            sizeInBytes += replacement.sizeInBytes() - (previous != null ? previous.sizeInBytes() : 0);
+        });
+    }
+
+    public void record(Integer classId, Date date, Integer studentId, boolean present) {
+        LocalDate day = toLocalDate(date);
+        afterCommit(() -> {
+            Session session = sessionFor(classId, day);
+            long before = session.sizeInBytes();
+            session.set(studentId, present);
+            sizeInBytes += session.sizeInBytes() - before;
+        });
+    }
+
+    /**
+     * Records each row's presence in its session once the current transaction commits.
+     */
+    public void record(List<Attendance> rows) {
+        List<Mark> updates = rows.stream()
+                .map(row -> new Mark(row.getClassAttended().getId(), toLocalDate(row.getDate()),
+                        row.getStudent().getId(), Boolean.TRUE.equals(row.getPresent())))
+                .toList();
+        afterCommit(() -> updates.forEach(update -> {
+            Session session = sessionFor(update.classId(), update.date());
+            long before = session.sizeInBytes();
+            session.set(update.studentId(), update.present());
+            sizeInBytes += session.sizeInBytes() - before;
+        }));
+    }
+
+    public void remove(Integer classId, Date date, Integer studentId) {
+        LocalDate day = toLocalDate(date);
+        afterCommit(() -> {
+            NavigableMap<LocalDate, Session> sessions = sessionsByClass.get(classId);
+            Session session = sessions != null ? sessions.get(day) : null;
+            if (session == null) {
+                return;
+            }
+            long before = session.sizeInBytes();
+            session.recorded.remove(studentId);
+            session.present.remove(studentId);
+            sizeInBytes += session.sizeInBytes() - before;
+            if (session.recorded.isEmpty()) {
+                sessions.remove(day);
+                sizeInBytes -= session.sizeInBytes();
+            }
+        });
+    }
+
+    /**
+     * Students recorded for the session but not present.
+     */
+    public int[] absentOn(Integer classId, LocalDate date) {
+        return read(() -> {
+            Session session = session(classId, date);
+            return session == null ? new int[0] : RoaringBitmap.andNot(session.recorded, session.present).toArray();
+        });
+    }
+
+    /**
+     * Students present in at least {@code minPercentage} of the class sessions they were recorded in.
+     */
+    public int[] studentsPresentAtLeast(Integer classId, double minPercentage) {
+        return read(() -> {
+            NavigableMap<LocalDate, Session> sessions = sessionsByClass.get(classId);
+            if (sessions == null) {
+                return new int[0];
+            }
+
+            Map<Integer, int[]> counts = new HashMap<>();
+            for (Session session : sessions.values()) {
+                IntIterator recorded = session.recorded.getIntIterator();
+                while (recorded.hasNext()) {
+                    counts.computeIfAbsent(recorded.next(), id -> new int[2])[1]++;
+                }
+                IntIterator present = session.present.getIntIterator();
+                while (present.hasNext()) {
+                    counts.get(present.next())[0]++;
+                }
+            }
+
+            RoaringBitmap result = new RoaringBitmap();
+            counts.forEach((studentId, count) -> {
+                if (count[0] * 100.0 / count[1] >= minPercentage) {
+                    result.add(studentId);
+                }
+            });
+            return result.toArray();
+        });
+    }
+
+    /**
+     * Dates of the class sessions in which the student was recorded absent.
+     */
+    public List<LocalDate> missedSessions(Integer classId, Integer studentId) {
+        return read(() -> {
+            List<LocalDate> missed = new ArrayList<>();
+            NavigableMap<LocalDate, Session> sessions = sessionsByClass.get(classId);
+            if (sessions != null) {
+                sessions.forEach((date, session) -> {
+                    if (session.recorded.contains(studentId) && !session.present.contains(studentId)) {
+                        missed.add(date);
+                    }
+                });
+            }
+            return missed;
+        });
+    }
+
+    public BitmapIndexStats stats() {
+        return read(() -> {
+            int sessions = sessionsByClass.values().stream().mapToInt(Map::size).sum();
+            return new BitmapIndexStats(enabled, ready, sessionsByClass.size(), sessions, sizeInBytes, maxBytes);
+        });
+    }
+
+    // Updates committing while the index warms are held back and replayed once it is loaded, so the
+    // commit does not wait for the warm-up; while the index is disabled they are dropped
+    private void afterCommit(Runnable update) {
+        if (!enabled) {
+            return;
+        }
+        Runnable guarded = () -> {
+            synchronized (pending) {
+                if (warming) {
+                    pending.add(update);
+                    return;
+                }
+            }
+            write(() -> {
+                if (ready) {
+                    update.run();
+                    checkBudget();
+                }
+                return null;
+            });
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+
+    // Called with the write lock held while warming; sizes are before run-length optimisation, so this aborts on the safe side
+    private void load(int classId, LocalDate date, int studentId, boolean present) {
+        Session session = sessionFor(classId, date);
+        long before = session.sizeInBytes();
+        session.set(studentId, present);
+        sizeInBytes += session.sizeInBytes() - before;
+        if (sizeInBytes > maxBytes) {
+            throw new OverBudgetException();
+        }
+    }
+
+    // Called with the write lock held
+    private void checkBudget() {
+        if (sizeInBytes > maxBytes) {
+            log.warn("Attendance bitmap index needs {} bytes, over its {} byte budget; disabling it", sizeInBytes, maxBytes);
+            ready = false;
+            sessionsByClass.clear();
+            sizeInBytes = 0;
+        }
+    }
+
+    private Session session(Integer classId, LocalDate date) {
+        NavigableMap<LocalDate, Session> sessions = sessionsByClass.get(classId);
+        return sessions != null ? sessions.get(date) : null;
+    }
+
+    private Session sessionFor(Integer classId, LocalDate date) {
+        return sessionsByClass.computeIfAbsent(classId, id -> new TreeMap<>()).computeIfAbsent(date, d -> new Session());
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> update) {
+        lock.writeLock().lock();
+        try {
+            return update.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static final class Session {
+        private final RoaringBitmap recorded = new RoaringBitmap();
+        private final RoaringBitmap present = new RoaringBitmap();
+
+        void set(int studentId, boolean isPresent) {
+            recorded.add(studentId);
+            if (isPresent) {
+                present.add(studentId);
+            } else {
+                present.remove(studentId);
+            }
+        }
+
+        void optimize() {
+            recorded.runOptimize();
+            present.runOptimize();
+        }
+
+        long sizeInBytes() {
+            return recorded.getLongSizeInBytes() + present.getLongSizeInBytes();
+        }
+    }
+
+    private static final class OverBudgetException extends RuntimeException {
+        OverBudgetException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private record Mark(int classId, LocalDate date, int studentId, boolean present) {
+    }
+}
@@ -1,28 +1,52 @@
 package edu.icet.repository;
 
 import edu.icet.dto.Attendance;
+import edu.icet.dto.response.AttendanceResponse;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface AttendanceRepository extends JpaRepository<Attendance, Integer> {
-    List<Attendance> findByStudentId(Integer studentId);
-
-    List<Attendance> findByClassAttendedId(Integer classId);
+public interface AttendanceRepository extends JpaRepository<Attendance, Integer>, AttendanceRepositoryCustom {
+    // Only the names of the student and class are read, in the same query as the attendance row
+    String RESPONSE_SELECT = "SELECT new edu.icet.dto.response.AttendanceResponse(a.id, s.id, s.fName, s.lName, " +
+            "c.id, c.name, a.date, a.present, a.notes) FROM Attendance a JOIN a.student s JOIN a.classAttended c ";
 
     List<Attendance> findByStudentIdAndClassAttendedId(Integer studentId, Integer classId);
 
-    List<Attendance> findByDate(Date date);
-
     List<Attendance> findByClassAttendedIdAndDate(Integer classId, Date date);
 
-    @Query("SELECT COUNT(a) FROM Attendance a WHERE a.student.id = ?1 AND a.classAttended.id = ?2 AND a.present = true")
-    Long countPresentByStudentIdAndClassId(Integer studentId, Integer classId);
+    @Query(RESPONSE_SELECT + "ORDER BY a.id")
+    List<AttendanceResponse> findAllResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE a.id = ?1")
+    Optional<AttendanceResponse> findResponseById(Integer id);
+
+    @Query(RESPONSE_SELECT + "WHERE s.id = ?1 ORDER BY a.date, a.id")
+    List<AttendanceResponse> findResponsesByStudentId(Integer studentId);
+
+    @Query(RESPONSE_SELECT + "WHERE c.id = ?1 ORDER BY a.date, a.id")
+    List<AttendanceResponse> findResponsesByClassId(Integer classId);
+
+    @Query(RESPONSE_SELECT + "WHERE s.id = ?1 AND c.id = ?2 ORDER BY a.date, a.id")
+    List<AttendanceResponse> findResponsesByStudentIdAndClassId(Integer studentId, Integer classId);
+
+    @Query(RESPONSE_SELECT + "WHERE a.date = ?1 ORDER BY a.id")
+    List<AttendanceResponse> findResponsesByDate(Date date);
+
+    @Query(RESPONSE_SELECT + "WHERE c.id = ?1 AND a.date = ?2 ORDER BY a.id")
+    List<AttendanceResponse> findResponsesByClassIdAndDate(Integer classId, Date date);
 
-    @Query("SELECT COUNT(a) FROM Attendance a WHERE a.student.id = ?1 AND a.classAttended.id = ?2")
-    Long countTotalByStudentIdAndClassId(Integer studentId, Integer classId);
+    // Callers only need the foreign keys, which the lazy associations carry without loading anything. The locking read
+    // goes through uk_attendance_session, so on InnoDB it also locks the session's gaps: a second writer of the same
+    // session waits, and two that both found it empty cannot both insert into it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Attendance a WHERE a.classAttended.id = ?1 AND a.date = ?2")
+    List<Attendance> findSessionForUpdate(Integer classId, Date date);
 }
@@ -0,0 +1,35 @@
+package edu.icet.repository;
+
+import edu.icet.dto.ArchivedAttendance;
+import edu.icet.dto.AttendanceDelta;
+import edu.icet.dto.export.AttendanceExportRow;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface AttendanceRepositoryCustom {
+    /**
+     * Marks the students present for the (class, date) session in batched upserts: their existing rows are
+     * set present and students without a row get one. The locking read that decides the deltas goes through
+     * uk_attendance_session, so on InnoDB it also locks the gaps where missing rows would go and a concurrent
+     * writer of the same students waits for this one. Should a row still appear in between, the upsert
+     * updates it rather than adding a duplicate. Returns the summary deltas of what actually changed.
+     */
+    List<AttendanceDelta> markPresent(Integer classId, LocalDate date, Collection<Integer> studentIds);
+
+    /**
+     * Reads every attendance row of the class with a locking read, which also keeps new rows for the class
+     * from being inserted until the transaction ends.
+     */
+    List<ArchivedAttendance> lockClassForArchive(Integer classId);
+
+    int deleteByClass(Integer classId);
+
+    /**
+     * Scalar rows streamed one at a time in id order, so exports never hold the whole result. Null filters match everything.
+     */
+    Stream<AttendanceExportRow> streamForExport(Integer classId, Date from, Date to);
+}
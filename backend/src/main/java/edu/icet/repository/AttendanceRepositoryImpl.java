@@ -0,0 +1,94 @@
+package edu.icet.repository;
+
+import edu.icet.dto.ArchivedAttendance;
+import edu.icet.dto.AttendanceDelta;
+import edu.icet.dto.export.AttendanceExportRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class AttendanceRepositoryImpl implements AttendanceRepositoryCustom {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+    private final StreamingQueries streamingQueries;
+
+    @Override
+    public List<AttendanceDelta> markPresent(Integer classId, LocalDate date, Collection<Integer> studentIds) {
+        Date day = Date.valueOf(date);
+        List<Integer> ids = studentIds.stream().distinct().sorted().toList();
+
+        Set<Integer> recorded = new HashSet<>();
+        List<Object[]> absentRows = new ArrayList<>();
+        List<AttendanceDelta> deltas = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 2);
+            args.add(classId);
+            args.add(day);
+            args.addAll(chunk);
+            jdbcTemplate.query("SELECT id, student_id, present FROM attendance WHERE class_id = ? AND date = ? AND student_id IN (" +
+                    String.join(",", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY id FOR UPDATE", rs -> {
+                int studentId = rs.getInt("student_id");
+                recorded.add(studentId);
+                if (!rs.getBoolean("present")) {
+                    absentRows.add(new Object[]{rs.getInt("id"), studentId});
+                    deltas.add(new AttendanceDelta(studentId, classId, 1, 0));
+                }
+            }, args.toArray());
+        }
+
+        // Existing absent rows keep their id; students without a row get a new one
+        List<Object[]> rows = new ArrayList<>(absentRows);
+        List<Integer> missing = ids.stream().filter(id -> !recorded.contains(id)).toList();
+        if (!missing.isEmpty()) {
+            int firstId = idBlockAllocator.reserve("attendance", missing.size());
+            for (Integer studentId : missing) {
+                rows.add(new Object[]{firstId++, studentId});
+                deltas.add(new AttendanceDelta(studentId, classId, 1, 1));
+            }
+        }
+        // A row another writer inserted after the read above meets uk_attendance_session and is updated in place
+        jdbcTemplate.batchUpdate("INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (?, ?, ?, ?, TRUE) " +
+                        "ON DUPLICATE KEY UPDATE present = TRUE",
+                rows, CHUNK_SIZE, (ps, row) -> {
+                    ps.setInt(1, (Integer) row[0]);
+                    ps.setInt(2, (Integer) row[1]);
+                    ps.setInt(3, classId);
+                    ps.setDate(4, day);
+                });
+        return deltas;
+    }
+
+    @Override
+    public List<ArchivedAttendance> lockClassForArchive(Integer classId) {
+        return jdbcTemplate.query("SELECT id, student_id, date, present, notes FROM attendance WHERE class_id = ? ORDER BY id FOR UPDATE",
+                (rs, rowNum) -> new ArchivedAttendance(rs.getInt("id"), rs.getInt("student_id"), classId,
+                        rs.getDate("date").toLocalDate(), rs.getBoolean("present"), rs.getString("notes")), classId);
+    }
+
+    @Override
+    public int deleteByClass(Integer classId) {
+        return jdbcTemplate.update("DELETE FROM attendance WHERE class_id = ?", classId);
+    }
+
+    @Override
+    public Stream<AttendanceExportRow> streamForExport(Integer classId, java.util.Date from, java.util.Date to) {
+        return streamingQueries.stream("SELECT new edu.icet.dto.export.AttendanceExportRow(a.id, a.student.id, " +
+                        "a.classAttended.id, a.date, a.present) FROM Attendance a WHERE (?1 IS NULL OR a.classAttended.id = ?1) " +
+                        "AND (?2 IS NULL OR a.date >= ?2) AND (?3 IS NULL OR a.date <= ?3) ORDER BY a.id",
+                AttendanceExportRow.class, classId, from, to);
+    }
+}
@@ -0,0 +1,24 @@
+package edu.icet.repository;
+
+import edu.icet.dto.AttendanceSummary;
+import edu.icet.dto.projection.AttendanceTally;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AttendanceSummaryRepository extends JpaRepository<AttendanceSummary, AttendanceSummary.Key>, AttendanceSummaryRepositoryCustom {
+
+    // Enrolled classes with no sessions yet still come back, with zero counts
+    @Query("SELECT c.id AS id, COALESCE(t.presentCount, 0) AS present, COALESCE(t.totalCount, 0) AS total " +
+            "FROM Class c JOIN c.students s LEFT JOIN AttendanceSummary t ON t.classId = c.id AND t.studentId = s.id " +
+            "WHERE s.id = ?1")
+    List<AttendanceTally> tallyByClassForStudent(Integer studentId);
+
+    @Query("SELECT s.id AS id, COALESCE(t.presentCount, 0) AS present, COALESCE(t.totalCount, 0) AS total " +
+            "FROM Class c JOIN c.students s LEFT JOIN AttendanceSummary t ON t.classId = c.id AND t.studentId = s.id " +
+            "WHERE c.id = ?1")
+    List<AttendanceTally> tallyByStudentForClass(Integer classId);
+}
@@ -0,0 +1,25 @@
+package edu.icet.repository;
+
+import edu.icet.dto.AttendanceDelta;
+
+import java.util.Collection;
+
+public interface AttendanceSummaryRepositoryCustom {
+    /**
+     * Adds the deltas to the running counts in one JDBC batch, creating rows as needed.
+     * Runs in the caller's transaction.
+     */
+    void applyDeltas(Collection<AttendanceDelta> deltas);
+
+    /**
+     * Recomputes the counts of students with ids in [fromId, toId] from the Attendance table.
+     */
+    void rebuildStudentRange(int fromId, int toId);
+
+    /**
+     * Counts summary rows for students in [fromId, toId] that disagree with the Attendance table.
+     */
+    long countDrift(int fromId, int toId);
+
+    int maxStudentId();
+}
@@ -0,0 +1,85 @@
+package edu.icet.repository;
+
+import edu.icet.dto.AttendanceDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class AttendanceSummaryRepositoryImpl implements AttendanceSummaryRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO attendance_summary (student_id, class_id, present_count, total_count) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE present_count = present_count + VALUES(present_count), " +
+            "total_count = total_count + VALUES(total_count)";
+
+    private static final String AGGREGATE_SQL =
+            "SELECT a.student_id, a.class_id, SUM(CASE WHEN a.present = TRUE THEN 1 ELSE 0 END) AS present_count, " +
+            "COUNT(*) AS total_count FROM attendance a WHERE a.student_id BETWEEN ? AND ? " +
+            "AND a.class_id NOT IN (SELECT class_id FROM attendance_archive) GROUP BY a.student_id, a.class_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void applyDeltas(Collection<AttendanceDelta> deltas) {
+        // Merge per key and apply in key order so concurrent writers lock rows in the same order
+        Map<Long, int[]> merged = new TreeMap<>();
+        for (AttendanceDelta delta : deltas) {
+            int[] counts = merged.computeIfAbsent(key(delta.studentId(), delta.classId()), k -> new int[2]);
+            counts[0] += delta.present();
+            counts[1] += delta.total();
+        }
+
+        List<Object[]> batch = new ArrayList<>(merged.size());
+        merged.forEach((key, counts) -> {
+            if (counts[0] != 0 || counts[1] != 0) {
+                batch.add(new Object[]{(int) (key >> 32), (int) key.longValue(), counts[0], counts[1]});
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        }
+    }
+
+    @Override
+    public void rebuildStudentRange(int fromId, int toId) {
+        // Archived classes keep the counts they had when their rows left the table
+        jdbcTemplate.update("DELETE FROM attendance_summary WHERE student_id BETWEEN ? AND ? " +
+                "AND class_id NOT IN (SELECT class_id FROM attendance_archive)", fromId, toId);
+        jdbcTemplate.update("INSERT INTO attendance_summary (student_id, class_id, present_count, total_count) " + AGGREGATE_SQL,
+                fromId, toId);
+    }
+
+    @Override
+    public long countDrift(int fromId, int toId) {
+        Long wrong = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (" + AGGREGATE_SQL + ") x " +
+                "LEFT JOIN attendance_summary s ON s.student_id = x.student_id AND s.class_id = x.class_id " +
+                "WHERE s.student_id IS NULL OR s.present_count <> x.present_count OR s.total_count <> x.total_count",
+                Long.class, fromId, toId);
+        Long orphaned = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM attendance_summary s WHERE s.student_id BETWEEN ? AND ? " +
+                "AND (s.present_count <> 0 OR s.total_count <> 0) " +
+                "AND s.class_id NOT IN (SELECT class_id FROM attendance_archive) AND NOT EXISTS " +
+                "(SELECT 1 FROM attendance a WHERE a.student_id = s.student_id AND a.class_id = s.class_id)",
+                Long.class, fromId, toId);
+        return (wrong != null ? wrong : 0) + (orphaned != null ? orphaned : 0);
+    }
+
+    @Override
+    public int maxStudentId() {
+        Integer max = jdbcTemplate.queryForObject(
+                "SELECT GREATEST(COALESCE((SELECT MAX(student_id) FROM attendance), 0), " +
+                "COALESCE((SELECT MAX(student_id) FROM attendance_summary), 0))", Integer.class);
+        return max != null ? max : 0;
+    }
+
+    private static long key(int studentId, int classId) {
+        return ((long) studentId << 32) | (classId & 0xFFFFFFFFL);
+    }
+}
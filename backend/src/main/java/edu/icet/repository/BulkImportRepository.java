@@ -0,0 +1,186 @@
+package edu.icet.repository;
+
+import edu.icet.dto.Attendance;
+import edu.icet.dto.Class;
+import edu.icet.dto.Student;
+import edu.icet.dto.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC batch inserts and key lookups for the CSV importers. Rows must already carry their ids
+ * (see {@link IdBlockAllocator}); inserts run in the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkImportRepository {
+    public static final int AMBIGUOUS = -1;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BitSet loadStudentIds() {
+        return loadIds("SELECT id FROM student");
+    }
+
+    public BitSet loadClassIds() {
+        return loadIds("SELECT id FROM class");
+    }
+
+    /**
+     * Student ids by NIC; a NIC shared by several students maps to {@link #AMBIGUOUS}.
+     */
+    public Map<String, Integer> loadStudentIdsByNic() {
+        return loadKeys("SELECT nic, id FROM student WHERE nic IS NOT NULL");
+    }
+
+    /**
+     * Class ids by name; a name shared by several classes maps to {@link #AMBIGUOUS}.
+     */
+    public Map<String, Integer> loadClassIdsByName() {
+        return loadKeys("SELECT name, id FROM class");
+    }
+
+    public Set<String> loadUsernames() {
+        Set<String> usernames = new HashSet<>();
+        jdbcTemplate.query("SELECT username FROM user", rs -> {
+            usernames.add(rs.getString(1));
+        });
+        return usernames;
+    }
+
+    public void insertStudents(List<Student> students) {
+        jdbcTemplate.batchUpdate("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                students, BATCH_SIZE, (ps, student) -> {
+                    ps.setInt(1, student.getId());
+                    ps.setString(2, student.getFName());
+                    ps.setString(3, student.getLName());
+                    ps.setString(4, student.getAddress());
+                    if (student.getDob() != null) {
+                        ps.setDate(5, new Date(student.getDob().getTime()));
+                    } else {
+                        ps.setNull(5, Types.DATE);
+                    }
+                    ps.setString(6, student.getNic());
+                    ps.setString(7, student.getContact());
+                });
+    }
+
+    public void insertUsers(List<User> users) {
+        jdbcTemplate.batchUpdate("INSERT INTO user (id, username, password, role, student_id) VALUES (?, ?, ?, ?, ?)",
+                users, BATCH_SIZE, (ps, user) -> {
+                    ps.setInt(1, user.getId());
+                    ps.setString(2, user.getUsername());
+                    ps.setString(3, user.getPassword());
+                    ps.setString(4, user.getRole());
+                    ps.setInt(5, user.getStudent().getId());
+                });
+    }
+
+    public void insertClasses(List<Class> classes) {
+        jdbcTemplate.batchUpdate("INSERT INTO class (id, name, description, schedule, start_date, end_date) VALUES (?, ?, ?, ?, ?, ?)",
+                classes, BATCH_SIZE, (ps, classObj) -> {
+                    ps.setInt(1, classObj.getId());
+                    ps.setString(2, classObj.getName());
+                    ps.setString(3, classObj.getDescription());
+                    ps.setString(4, classObj.getSchedule());
+                    ps.setDate(5, toSqlDate(classObj.getStartDate()));
+                    ps.setDate(6, toSqlDate(classObj.getEndDate()));
+                });
+    }
+
+    /**
+     * Id and presence of the rows already recorded for the given (class, date, student) keys, locking those rows and the gaps of
+     * their sessions in uk_attendance_session so a concurrent writer cannot add them before this transaction ends.
+     */
+    public Map<AttendanceKey, Recorded> lockRecordedAttendance(Set<AttendanceKey> keys) {
+        List<AttendanceKey> sessions = keys.stream()
+                .map(key -> new AttendanceKey(key.classId(), key.date(), 0))
+                .distinct()
+                .sorted(Comparator.comparingInt(AttendanceKey::classId).thenComparing(AttendanceKey::date))
+                .toList();
+
+        Map<AttendanceKey, Recorded> recorded = new HashMap<>();
+        for (int from = 0; from < sessions.size(); from += BATCH_SIZE) {
+            List<AttendanceKey> chunk = sessions.subList(from, Math.min(from + BATCH_SIZE, sessions.size()));
+            List<Object> args = new ArrayList<>(chunk.size() * 2);
+            for (AttendanceKey session : chunk) {
+                args.add(session.classId());
+                args.add(Date.valueOf(session.date()));
+            }
+            jdbcTemplate.query("SELECT id, class_id, date, student_id, present FROM attendance WHERE " +
+                    String.join(" OR ", Collections.nCopies(chunk.size(), "(class_id = ? AND date = ?)")) + " FOR UPDATE", rs -> {
+                AttendanceKey key = new AttendanceKey(rs.getInt("class_id"), rs.getDate("date").toLocalDate(), rs.getInt("student_id"));
+                if (keys.contains(key)) {
+                    recorded.put(key, new Recorded(rs.getInt("id"), rs.getBoolean("present")));
+                }
+            }, args.toArray());
+        }
+        return recorded;
+    }
+
+    /**
+     * Inserts the rows, or updates presence and notes of the row already recorded for the same (class, date, student).
+     */
+    public void upsertAttendance(List<Attendance> attendance) {
+        jdbcTemplate.batchUpdate("INSERT INTO attendance (id, student_id, class_id, date, present, notes) VALUES (?, ?, ?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE present = VALUES(present), notes = VALUES(notes)",
+                attendance, BATCH_SIZE, (ps, row) -> {
+                    ps.setInt(1, row.getId());
+                    ps.setInt(2, row.getStudent().getId());
+                    ps.setInt(3, row.getClassAttended().getId());
+                    ps.setDate(4, toSqlDate(row.getDate()));
+                    ps.setBoolean(5, row.getPresent());
+                    ps.setString(6, row.getNotes());
+                });
+    }
+
+    private BitSet loadIds(String sql) {
+        BitSet ids = new BitSet();
+        jdbcTemplate.query(sql, rs -> {
+            ids.set(rs.getInt(1));
+        });
+        return ids;
+    }
+
+    private Map<String, Integer> loadKeys(String sql) {
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            ids.merge(rs.getString(1), rs.getInt(2), (existing, id) -> AMBIGUOUS);
+        });
+        return ids;
+    }
+
+    private static Date toSqlDate(java.util.Date date) {
+        return date != null ? new Date(date.getTime()) : null;
+    }
+
+    /**
+     * The natural key of an attendance row, uk_attendance_session.
+     */
+    public record AttendanceKey(int classId, LocalDate date, int studentId) {
+
+        public static AttendanceKey of(Attendance attendance) {
+            return new AttendanceKey(attendance.getClassAttended().getId(),
+                    toSqlDate(attendance.getDate()).toLocalDate(), attendance.getStudent().getId());
+        }
+    }
+
+    public record Recorded(int id, boolean present) {
+    }
+}
@@ -0,0 +1,180 @@
+package edu.icet.repository;
+
+import edu.icet.dto.CheckIn;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of accepted check-ins that are not yet in the Attendance table, one
+ * {@code classId,date,studentId} line each. A check-in is acknowledged only once its line is
+ * written (and, with {@code app.checkin.fsync}, forced to disk), so a crash before the flush loses
+ * nothing: whatever is left in the directory is replayed at startup. The log is split into
+ * segments; the flusher starts a new one before draining the queue and deletes the older ones
+ * once everything they hold has been written.
+ */
+@Slf4j
+@Component
+public class CheckInJournal {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("checkins-(\\d{12})\\.log");
+
+    private final Path dir;
+    private final boolean fsync;
+
+    private final Object syncLock = new Object();
+    private final AtomicLong synced = new AtomicLong();
+
+    // Guarded by this; written counts bytes across all segments, so it doubles as a position to wait for
+    private FileChannel current;
+    private long segment;
+    private long written;
+
+    public CheckInJournal(@Value("${app.checkin.journal-dir:data/checkins}") String dir,
+                          @Value("${app.checkin.fsync:true}") boolean fsync) {
+        this.dir = Paths.get(dir).toAbsolutePath().normalize();
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(this.dir);
+            for (Path existing : segments()) {
+                segment = Math.max(segment, sequenceOf(existing));
+            }
+            open(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open check-in journal at " + this.dir, e);
+        }
+        log.info("Check-in journal at {}", this.dir);
+    }
+
+    /**
+     * Writes the check-in to the current segment and returns the position to pass to {@link #awaitDurable}.
+     */
+    public synchronized long append(CheckIn checkIn) throws IOException {
+        byte[] line = (checkIn.classId() + "," + checkIn.date() + "," + checkIn.studentId() + "\n").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            current.write(buffer);
+        }
+        written += line.length;
+        return written;
+    }
+
+    /**
+     * Returns once everything up to {@code position} is on disk. Callers that arrive while a force is
+     * running wait for it and are then usually covered by the next one, so a burst costs a handful of
+     * fsyncs rather than one per check-in.
+     */
+    public void awaitDurable(long position) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced.get() >= position) {
+                return;
+            }
+            long target;
+            FileChannel channel;
+            synchronized (this) {
+                target = written;
+                channel = current;
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated meanwhile, which forces the old segment before closing it
+            }
+            synced.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    /**
+     * Starts a new segment and returns the sequence number of the one it replaces.
+     */
+    public synchronized long rotate() throws IOException {
+        long previous = segment;
+        if (fsync) {
+            current.force(false);
+        }
+        current.close();
+        synced.accumulateAndGet(written, Math::max);
+        open(segment + 1);
+        return previous;
+    }
+
+    /**
+     * Deletes the segments up to and including {@code sequence}, once their check-ins are all written.
+     */
+    public void deleteThrough(long sequence) throws IOException {
+        for (Path existing : segments()) {
+            if (sequenceOf(existing) <= sequence) {
+                Files.deleteIfExists(existing);
+            }
+        }
+    }
+
+    /**
+     * Reads the check-ins of every segment before the current one, as left behind by an unclean shutdown.
+     * A torn last line from a crash mid-write is skipped.
+     */
+    public List<CheckIn> readClosedSegments() throws IOException {
+        List<CheckIn> checkIns = new ArrayList<>();
+        for (Path existing : segments()) {
+            if (sequenceOf(existing) >= segment) {
+                continue;
+            }
+            for (String line : Files.readAllLines(existing, StandardCharsets.US_ASCII)) {
+                String[] fields = line.split(",");
+                if (fields.length != 3) {
+                    continue;
+                }
+                try {
+                    checkIns.add(new CheckIn(Integer.valueOf(fields[0]), LocalDate.parse(fields[1]), Integer.valueOf(fields[2])));
+                } catch (RuntimeException e) {
+                    log.warn("Skipping unreadable check-in journal line '{}' in {}", line, existing);
+                }
+            }
+        }
+        return checkIns;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        current.close();
+    }
+
+    private void open(long sequence) throws IOException {
+        segment = sequence;
+        current = FileChannel.open(dir.resolve(String.format("checkins-%012d.log", sequence)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches()).sorted().toList();
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+}
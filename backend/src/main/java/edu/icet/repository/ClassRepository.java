@@ -1,12 +1,80 @@
 package edu.icet.repository;
 
+import edu.icet.config.CatalogCache;
 import edu.icet.dto.Class;
+import edu.icet.dto.projection.ClassSummary;
+import edu.icet.dto.projection.VersionStamp;
+import edu.icet.dto.response.ClassRef;
+import edu.icet.dto.response.ClassResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ClassRepository extends JpaRepository<Class, Integer> {
-    List<Class> findByStudentsId(Integer studentId);
+public interface ClassRepository extends JpaRepository<Class, Integer>, ClassRepositoryCustom {
+    String RESPONSE_SELECT = "SELECT new edu.icet.dto.response.ClassResponse(c.id, c.name, c.description, c.schedule, " +
+            "c.startDate, c.endDate, c.maxStudents, c.seatsTaken, c.version) FROM Class c ";
+
+    // The query cache holds the scalar rows themselves, so a hit costs no entity lookups
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CatalogCache.QUERY_REGION)
+    })
+    @Query(RESPONSE_SELECT + "ORDER BY c.id")
+    List<ClassResponse> findAllResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE c.id = ?1")
+    Optional<ClassResponse> findResponseById(Integer id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CatalogCache.QUERY_REGION)
+    })
+    @Query(RESPONSE_SELECT + "JOIN c.students s WHERE s.id = ?1 ORDER BY c.id")
+    List<ClassResponse> findResponsesByStudentId(Integer studentId);
+
+    // Anti-join against class_student, so only the scalar columns of unenrolled classes are read
+    @Query("SELECT c.id AS id, c.name AS name, c.description AS description, c.schedule AS schedule, " +
+            "c.startDate AS startDate, c.endDate AS endDate FROM Class c " +
+            "WHERE NOT EXISTS (SELECT 1 FROM Class e JOIN e.students s WHERE e.id = c.id AND s.id = ?1) " +
+            "ORDER BY c.id")
+    Slice<ClassSummary> findSummariesNotEnrolledBy(Integer studentId, Pageable pageable);
+
+    @Query("SELECT COUNT(c) AS rowCount, COALESCE(SUM(c.id), 0L) AS idSum, COALESCE(SUM(c.version), 0L) AS versionSum " +
+            "FROM Class c")
+    VersionStamp findStamp();
+
+    @Query("SELECT c.version FROM Class c WHERE c.id = ?1")
+    Optional<Integer> findVersionById(Integer id);
+
+    // A plain read, so it may be a moment stale; the seat is only taken by claimSeat
+    @Query("SELECT CASE WHEN c.maxStudents IS NOT NULL AND c.seatsTaken >= c.maxStudents THEN true ELSE false END " +
+            "FROM Class c WHERE c.id = ?1")
+    Optional<Boolean> findFullById(Integer id);
+
+    @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM Class c JOIN c.students s WHERE c.id = ?1 AND s.id = ?2")
+    boolean isEnrolled(Integer classId, Integer studentId);
+
+    @Query("SELECT COUNT(s) AS rowCount, COALESCE(SUM(s.id), 0L) AS idSum, COALESCE(SUM(s.version), 0L) AS versionSum " +
+            "FROM Class c JOIN c.students s WHERE c.id = ?1")
+    VersionStamp findEnrolledStamp(Integer classId);
+
+    @Query("SELECT s.id FROM Class c JOIN c.students s WHERE c.id = ?1")
+    List<Integer> findEnrolledStudentIds(Integer classId);
+
+    @Query("SELECT new edu.icet.dto.response.ClassRef(c.id, c.name) FROM Class c WHERE c.id IN ?1")
+    List<ClassRef> findRefsByIdIn(Collection<Integer> ids);
+
+    @Query("SELECT c.id FROM Class c WHERE c.endDate < ?1 AND c.id NOT IN (SELECT a.classId FROM ArchivedClass a) ORDER BY c.id")
+    List<Integer> findUnarchivedIdsEndedBefore(Date cutoff);
 }
@@ -0,0 +1,63 @@
+package edu.icet.repository;
+
+import edu.icet.dto.export.EnrolmentExportRow;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Enrolment and seat writes issued directly over JDBC. A class's seat count covers its enrolled students and
+ * the students holding a pending request for it, each counted once. Every write that changes either set takes
+ * the class row lock before reading them, so concurrent writers to one class queue on that row.
+ */
+public interface ClassRepositoryCustom {
+    /**
+     * Inserts class_student rows directly, skipping students already enrolled, and takes a seat for each new
+     * student who was not already holding one through a pending request. Bumps the class version if any were added.
+     * Returns the ids that were newly enrolled, or throws IllegalStateException if the class lacks the seats.
+     */
+    List<Integer> enrol(Integer classId, Collection<Integer> studentIds);
+
+    /**
+     * Deletes class_student rows directly, frees the seats of the removed students who have no pending request
+     * for the class, and bumps the class version if any were removed. Returns the ids that were enrolled and are now removed.
+     */
+    List<Integer> unenrol(Integer classId, Collection<Integer> studentIds);
+
+    /**
+     * Enrols students across many classes with one batched insert, ignoring pairs that already exist,
+     * and bumps the version of every class involved. For approved requests, whose students already hold their
+     * seats, so the seat counts don't change; the classes must be locked with {@link #lockClasses} first.
+     */
+    void enrolAll(Map<Integer, ? extends Collection<Integer>> studentIdsByClass);
+
+    /**
+     * Locks the rows of the given classes until the transaction ends, in ascending id order.
+     */
+    void lockClasses(Collection<Integer> classIds);
+
+    /**
+     * Takes one seat in the class if it has one free, bumping its version, and returns whether it did.
+     * The update also locks the class row until the transaction ends.
+     */
+    boolean claimSeat(Integer classId);
+
+    /**
+     * Frees the seats held by pending requests that are being rejected, except for students who are enrolled
+     * anyway. The classes must be locked with {@link #lockClasses} first.
+     */
+    void releasePendingSeats(Map<Integer, ? extends Collection<Integer>> studentIdsByClass);
+
+    /**
+     * Recomputes every class's seat count from its roster and pending requests, for rows written around
+     * the enrolment paths. Returns the number of classes whose count was corrected.
+     */
+    int recountSeats();
+
+    /**
+     * (class, student) enrolment pairs streamed one at a time in that order; a null class id streams every class.
+     */
+    Stream<EnrolmentExportRow> streamEnrolmentsForExport(Integer classId);
+}
@@ -0,0 +1,182 @@
+package edu.icet.repository;
+
+import edu.icet.dto.export.EnrolmentExportRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class ClassRepositoryImpl implements ClassRepositoryCustom {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StreamingQueries streamingQueries;
+
+    @Override
+    public List<Integer> enrol(Integer classId, Collection<Integer> studentIds) {
+        Seats seats = lockSeats(classId);
+        Set<Integer> enrolled = findEnrolled(classId, studentIds);
+        List<Integer> toInsert = new ArrayList<>();
+        for (Integer studentId : new HashSet<>(studentIds)) {
+            if (!enrolled.contains(studentId)) {
+                toInsert.add(studentId);
+            }
+        }
+        Collections.sort(toInsert);
+
+        if (toInsert.isEmpty()) {
+            return toInsert;
+        }
+        int needed = toInsert.size() - findPendingHolders(classId, toInsert).size();
+        if (seats.max() != null && seats.taken() + needed > seats.max()) {
+            throw new IllegalStateException("Class " + classId + " has " + Math.max(0, seats.max() - seats.taken()) +
+                    " free seats, " + needed + " needed");
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO class_student (class_id, student_id) VALUES (?, ?)",
+                toInsert, CHUNK_SIZE, (ps, studentId) -> {
+                    ps.setInt(1, classId);
+                    ps.setInt(2, studentId);
+                });
+        // The roster belongs to the class, so a roster change is a new class version, as it is when Hibernate writes it
+        jdbcTemplate.update("UPDATE class SET seats_taken = seats_taken + ?, version = version + 1 WHERE id = ?", needed, classId);
+        return toInsert;
+    }
+
+    @Override
+    public List<Integer> unenrol(Integer classId, Collection<Integer> studentIds) {
+        lockSeats(classId);
+        List<Integer> toDelete = new ArrayList<>(findEnrolled(classId, studentIds));
+        Collections.sort(toDelete);
+        if (toDelete.isEmpty()) {
+            return toDelete;
+        }
+
+        jdbcTemplate.batchUpdate("DELETE FROM class_student WHERE class_id = ? AND student_id = ?",
+                toDelete, CHUNK_SIZE, (ps, studentId) -> {
+                    ps.setInt(1, classId);
+                    ps.setInt(2, studentId);
+                });
+        int freed = toDelete.size() - findPendingHolders(classId, toDelete).size();
+        jdbcTemplate.update("UPDATE class SET seats_taken = seats_taken - ?, version = version + 1 WHERE id = ?", freed, classId);
+        return toDelete;
+    }
+
+    @Override
+    public void enrolAll(Map<Integer, ? extends Collection<Integer>> studentIdsByClass) {
+        List<int[]> pairs = new ArrayList<>();
+        studentIdsByClass.forEach((classId, studentIds) -> {
+            for (Integer studentId : studentIds) {
+                pairs.add(new int[]{classId, studentId});
+            }
+        });
+        if (pairs.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO class_student (class_id, student_id) VALUES (?, ?)",
+                pairs, CHUNK_SIZE, (ps, pair) -> {
+                    ps.setInt(1, pair[0]);
+                    ps.setInt(2, pair[1]);
+                });
+        List<Integer> classIds = studentIdsByClass.keySet().stream().sorted().toList();
+        for (int from = 0; from < classIds.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = classIds.subList(from, Math.min(from + CHUNK_SIZE, classIds.size()));
+            jdbcTemplate.update("UPDATE class SET version = version + 1 WHERE id IN (" + placeholders(chunk.size()) + ")",
+                    chunk.toArray());
+        }
+    }
+
+    @Override
+    public void lockClasses(Collection<Integer> classIds) {
+        List<Integer> ids = classIds.stream().distinct().sorted().toList();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            jdbcTemplate.queryForList("SELECT id FROM class WHERE id IN (" + placeholders(chunk.size()) + ") ORDER BY id FOR UPDATE",
+                    Integer.class, chunk.toArray());
+        }
+    }
+
+    @Override
+    public boolean claimSeat(Integer classId) {
+        return jdbcTemplate.update("UPDATE class SET seats_taken = seats_taken + 1, version = version + 1 " +
+                "WHERE id = ? AND (max_students IS NULL OR seats_taken < max_students)", classId) == 1;
+    }
+
+    @Override
+    public void releasePendingSeats(Map<Integer, ? extends Collection<Integer>> studentIdsByClass) {
+        List<Object[]> releases = new ArrayList<>();
+        new TreeMap<>(studentIdsByClass).forEach((classId, studentIds) ->
+                releases.add(new Object[]{new HashSet<>(studentIds).size() - findEnrolled(classId, studentIds).size(), classId}));
+        jdbcTemplate.batchUpdate("UPDATE class SET seats_taken = seats_taken - ?, version = version + 1 WHERE id = ?", releases);
+    }
+
+    @Override
+    public int recountSeats() {
+        List<Object[]> corrections = jdbcTemplate.query(
+                "SELECT c.id, c.seats_taken, " +
+                        "(SELECT COUNT(*) FROM class_student cs WHERE cs.class_id = c.id) + " +
+                        "(SELECT COUNT(*) FROM class_request r WHERE r.class_id = c.id AND r.status = 'PENDING' " +
+                        "AND NOT EXISTS (SELECT 1 FROM class_student cs WHERE cs.class_id = r.class_id AND cs.student_id = r.student_id)) " +
+                        "AS counted FROM class c",
+                (rs, rowNum) -> rs.getInt("seats_taken") == rs.getInt("counted")
+                        ? null
+                        : new Object[]{rs.getInt("counted"), rs.getInt("id")})
+                .stream().filter(Objects::nonNull).toList();
+        jdbcTemplate.batchUpdate("UPDATE class SET seats_taken = ?, version = version + 1 WHERE id = ?", corrections);
+        return corrections.size();
+    }
+
+    // Locking reads from here on: a plain read could return the snapshot taken before the class lock was granted
+
+    @Override
+    public Stream<EnrolmentExportRow> streamEnrolmentsForExport(Integer classId) {
+        return streamingQueries.stream("SELECT new edu.icet.dto.export.EnrolmentExportRow(c.id, s.id) FROM Class c " +
+                "JOIN c.students s WHERE (?1 IS NULL OR c.id = ?1) ORDER BY c.id, s.id", EnrolmentExportRow.class, classId);
+    }
+
+    private Seats lockSeats(Integer classId) {
+        return jdbcTemplate.queryForObject("SELECT max_students, seats_taken FROM class WHERE id = ? FOR UPDATE",
+                (rs, rowNum) -> new Seats(rs.getObject("max_students", Integer.class), rs.getInt("seats_taken")), classId);
+    }
+
+    private Set<Integer> findEnrolled(Integer classId, Collection<Integer> studentIds) {
+        return findAmong("SELECT student_id FROM class_student WHERE class_id = ?", classId, studentIds);
+    }
+
+    private Set<Integer> findPendingHolders(Integer classId, Collection<Integer> studentIds) {
+        return findAmong("SELECT student_id FROM class_request WHERE class_id = ? AND status = 'PENDING'", classId, studentIds);
+    }
+
+    private Set<Integer> findAmong(String query, Integer classId, Collection<Integer> studentIds) {
+        Set<Integer> found = new HashSet<>();
+        List<Integer> ids = new ArrayList<>(new HashSet<>(studentIds));
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(classId);
+            args.addAll(chunk);
+            found.addAll(jdbcTemplate.queryForList(query + " AND student_id IN (" + placeholders(chunk.size()) + ") FOR UPDATE",
+                    Integer.class, args.toArray()));
+        }
+        return found;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private record Seats(Integer max, int taken) {
+    }
+}
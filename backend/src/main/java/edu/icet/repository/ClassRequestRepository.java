@@ -1,18 +1,50 @@
 package edu.icet.repository;
 
 import edu.icet.dto.ClassRequest;
+import edu.icet.dto.RequestStatus;
+import edu.icet.dto.projection.VersionStamp;
+import edu.icet.dto.response.ClassRequestResponse;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ClassRequestRepository extends JpaRepository<ClassRequest, Integer> {
-    List<ClassRequest> findByStudentId(Integer studentId);
+public interface ClassRequestRepository extends JpaRepository<ClassRequest, Integer>, ClassRequestRepositoryCustom {
+    String RESPONSE_SELECT = "SELECT new edu.icet.dto.response.ClassRequestResponse(r.id, s.id, s.fName, s.lName, " +
+            "c.id, c.name, r.requestDate, r.status, r.responseDate, r.responseNotes, r.version) " +
+            "FROM ClassRequest r JOIN r.student s JOIN r.requestedClass c ";
 
-    List<ClassRequest> findByRequestedClassId(Integer classId);
+    boolean existsByStudentIdAndRequestedClassIdAndStatus(Integer studentId, Integer classId, RequestStatus status);
 
-    List<ClassRequest> findByStatus(String status);
+    @Query("SELECT DISTINCT r.requestedClass.id FROM ClassRequest r WHERE r.id IN ?1")
+    List<Integer> findClassIdsByIdIn(Collection<Integer> ids);
 
-    List<ClassRequest> findByStudentIdAndRequestedClassId(Integer studentId, Integer classId);
+    @EntityGraph(ClassRequest.WITH_STUDENT_AND_CLASS)
+    Optional<ClassRequest> findWithStudentAndClassById(Integer id);
+
+    @Query(RESPONSE_SELECT + "ORDER BY r.id")
+    List<ClassRequestResponse> findAllResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE r.id = ?1")
+    Optional<ClassRequestResponse> findResponseById(Integer id);
+
+    @Query(RESPONSE_SELECT + "WHERE s.id = ?1 ORDER BY r.id")
+    List<ClassRequestResponse> findResponsesByStudentId(Integer studentId);
+
+    @Query(RESPONSE_SELECT + "WHERE c.id = ?1 ORDER BY r.id")
+    List<ClassRequestResponse> findResponsesByClassId(Integer classId);
+
+    @Query(RESPONSE_SELECT + "WHERE r.status = ?1 ORDER BY r.id")
+    List<ClassRequestResponse> findResponsesByStatus(RequestStatus status);
+
+    // Requests embed their student and class, so their versions count too
+    @Query("SELECT COUNT(r) AS rowCount, COALESCE(SUM(r.id), 0L) AS idSum, " +
+            "COALESCE(SUM(r.version + s.version + c.version), 0L) AS versionSum " +
+            "FROM ClassRequest r JOIN r.student s JOIN r.requestedClass c WHERE r.status = ?1")
+    VersionStamp findStampByStatus(RequestStatus status);
 }
@@ -0,0 +1,31 @@
+package edu.icet.repository;
+
+import edu.icet.dto.RequestStatus;
+import edu.icet.dto.export.ClassRequestExportRow;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ClassRequestRepositoryCustom {
+    /**
+     * Reads the keys and status of the given requests and locks their rows until the transaction ends.
+     * Ids without a request are left out.
+     */
+    List<LockedRequest> lockForDecision(Collection<Integer> requestIds);
+
+    /**
+     * Sets the status, response date and notes of the given requests with one UPDATE per chunk of ids.
+     */
+    void decide(Collection<Integer> requestIds, RequestStatus status, Date responseDate, String notes);
+
+    /**
+     * Export rows streamed one at a time in id order; requests dated from {@code from} inclusive to {@code to}
+     * exclusive. Null filters match everything.
+     */
+    Stream<ClassRequestExportRow> streamForExport(Integer classId, RequestStatus status, Date from, Date to);
+
+    record LockedRequest(Integer id, Integer studentId, Integer classId, RequestStatus status) {
+    }
+}
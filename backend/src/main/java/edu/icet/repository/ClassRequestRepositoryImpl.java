@@ -0,0 +1,69 @@
+package edu.icet.repository;
+
+import edu.icet.dto.RequestStatus;
+import edu.icet.dto.export.ClassRequestExportRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class ClassRequestRepositoryImpl implements ClassRequestRepositoryCustom {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StreamingQueries streamingQueries;
+
+    @Override
+    public List<LockedRequest> lockForDecision(Collection<Integer> requestIds) {
+        List<LockedRequest> locked = new ArrayList<>();
+        // Ascending ids, so two batches overlapping in requests lock them in the same order
+        List<Integer> ids = requestIds.stream().distinct().sorted().toList();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            locked.addAll(jdbcTemplate.query(
+                    "SELECT id, student_id, class_id, status FROM class_request WHERE id IN (" + placeholders(chunk) + ") " +
+                            "ORDER BY id FOR UPDATE",
+                    (rs, rowNum) -> new LockedRequest(rs.getInt("id"), rs.getInt("student_id"), rs.getInt("class_id"),
+                            RequestStatus.valueOf(rs.getString("status"))),
+                    chunk.toArray()));
+        }
+        return locked;
+    }
+
+    @Override
+    public void decide(Collection<Integer> requestIds, RequestStatus status, Date responseDate, String notes) {
+        List<Integer> ids = List.copyOf(requestIds);
+        Timestamp respondedAt = new Timestamp(responseDate.getTime());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 3);
+            args.add(status.name());
+            args.add(respondedAt);
+            args.add(notes);
+            args.addAll(chunk);
+            jdbcTemplate.update("UPDATE class_request SET status = ?, response_date = ?, response_notes = ?, version = version + 1 " +
+                    "WHERE id IN (" + placeholders(chunk) + ")", args.toArray());
+        }
+    }
+
+    @Override
+    public Stream<ClassRequestExportRow> streamForExport(Integer classId, RequestStatus status, Date from, Date to) {
+        return streamingQueries.stream("SELECT new edu.icet.dto.export.ClassRequestExportRow(r.id, r.student.id, " +
+                        "r.requestedClass.id, r.requestDate, r.status, r.responseDate, r.responseNotes) FROM ClassRequest r " +
+                        "WHERE (?1 IS NULL OR r.requestedClass.id = ?1) AND (?2 IS NULL OR r.status = ?2) " +
+                        "AND (?3 IS NULL OR r.requestDate >= ?3) AND (?4 IS NULL OR r.requestDate < ?4) ORDER BY r.id",
+                ClassRequestExportRow.class, classId, status, from, to);
+    }
+
+    private static String placeholders(List<Integer> chunk) {
+        return String.join(",", Collections.nCopies(chunk.size(), "?"));
+    }
+}
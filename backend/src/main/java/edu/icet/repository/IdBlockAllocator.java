@@ -0,0 +1,35 @@
+package edu.icet.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Hands out blocks of primary keys for rows written directly over JDBC, keeping Hibernate's
+ * table-backed id sequences ({@code <table>_seq}) clear of them.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdBlockAllocator {
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves {@code count} consecutive ids for {@code table} and returns the first one.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int reserve(String table, int count) {
+        String sequence = table + "_seq";
+        Integer nextVal = jdbcTemplate.queryForObject("SELECT next_val FROM " + sequence + " FOR UPDATE", Integer.class);
+        Integer maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Integer.class);
+
+        // Ids Hibernate already holds in memory are all below next_val, and its next fetch hands out
+        // (next_val - 49 .. next_val], so start at next_val and leave one allocation of headroom after the block
+        int first = Math.max(nextVal != null ? nextVal : 1, (maxId != null ? maxId : 0) + 1);
+        jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ?", first + count + ALLOCATION_SIZE);
+        return first;
+    }
+}
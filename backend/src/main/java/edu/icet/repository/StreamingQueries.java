@@ -0,0 +1,42 @@
+package edu.icet.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Runs the export queries, which read whole tables into a stream.
+ * <p>
+ * Connector/J streams a result set row by row when the fetch size is {@link Integer#MIN_VALUE}, the default of
+ * {@code app.export.fetch-size}, so only these queries skip buffering the whole result, without turning on
+ * server-side cursors for every query the way {@code useCursorFetch} on the URL would. The connection can run
+ * nothing else until the stream is closed. Other drivers reject a negative fetch size and need a positive one.
+ */
+@Component
+public class StreamingQueries {
+    private final EntityManager entityManager;
+    private final int fetchSize;
+
+    public StreamingQueries(EntityManager entityManager,
+                            @Value("${app.export.fetch-size:" + Integer.MIN_VALUE + "}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Streams the results of the JPQL query, binding the parameters to ?1, ?2 and so on. Must be called in a
+     * transaction, and the stream closed before it ends.
+     */
+    public <T> Stream<T> stream(String jpql, Class<T> type, Object... parameters) {
+        TypedQuery<T> query = entityManager.createQuery(jpql, type)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        return query.getResultStream();
+    }
+}
@@ -1,15 +1,57 @@
 package edu.icet.repository;
 
 import edu.icet.dto.Student;
+import edu.icet.dto.projection.StudentSummary;
+import edu.icet.dto.projection.VersionStamp;
+import edu.icet.dto.response.StudentRef;
+import edu.icet.dto.response.StudentResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Integer> {
+    String RESPONSE_FIELDS = "new edu.icet.dto.response.StudentResponse(s.id, s.fName, s.lName, s.address, s.dob, " +
+            "s.nic, s.contact, s.profilePicHash, s.version)";
+
     @Override
     @NonNull
     Optional<Student> findById(@NonNull Integer id);
+
+    @Query("SELECT s.id FROM Student s WHERE s.id IN ?1")
+    List<Integer> findExistingIds(Collection<Integer> ids);
+
+    @Query("SELECT new edu.icet.dto.response.StudentRef(s.id, s.fName, s.lName) FROM Student s WHERE s.id IN ?1")
+    List<StudentRef> findRefsByIdIn(Collection<Integer> ids);
+
+    @Query("SELECT s.profilePicHash FROM Student s WHERE s.id = ?1")
+    Optional<String> findProfilePicHashById(Integer id);
+
+    @Query("SELECT " + RESPONSE_FIELDS + " FROM Student s ORDER BY s.id")
+    List<StudentResponse> findAllResponses();
+
+    @Query("SELECT " + RESPONSE_FIELDS + " FROM Student s WHERE s.id = ?1")
+    Optional<StudentResponse> findResponseById(Integer id);
+
+    @Query("SELECT " + RESPONSE_FIELDS + " FROM Class c JOIN c.students s WHERE c.id = ?1 ORDER BY s.id")
+    List<StudentResponse> findResponsesByClassId(Integer classId);
+
+    @Query("SELECT s.version FROM Student s WHERE s.id = ?1")
+    Optional<Integer> findVersionById(Integer id);
+
+    @Query("SELECT COUNT(s) AS rowCount, COALESCE(SUM(s.id), 0L) AS idSum, COALESCE(SUM(s.version), 0L) AS versionSum " +
+            "FROM Student s")
+    VersionStamp findStamp();
+
+    // Keyset page: seeks on the primary key so cost doesn't grow with the offset
+    @Query("SELECT s.id AS id, s.fName AS firstName, s.lName AS lastName, s.address AS address, s.dob AS dob, " +
+            "s.nic AS nic, s.contact AS contact, s.profilePicHash AS profilePicHash " +
+            "FROM Student s WHERE s.id > ?1 ORDER BY s.id")
+    List<StudentSummary> findSummariesAfter(Integer afterId, Pageable pageable);
 }
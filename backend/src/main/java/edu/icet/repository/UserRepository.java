@@ -1,14 +1,34 @@
 package edu.icet.repository;
 
 import edu.icet.dto.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
+    @Override
+    @NonNull
+    @EntityGraph(User.WITH_STUDENT)
+    List<User> findAll();
+
+    @EntityGraph(User.WITH_STUDENT)
+    Optional<User> findWithStudentById(Integer id);
+
     Optional<User> findByUsername(String username);
 
     Optional<User> findByStudentId(Integer studentId);
+
+    // Only replaces the password it was computed from, so a concurrent password change wins
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = ?3 WHERE u.id = ?1 AND u.password = ?2")
+    int replacePassword(Integer id, String expected, String replacement);
 }
@@ -0,0 +1,12 @@
+package edu.icet.service;
+
+import edu.icet.dto.ArchiveReport;
+
+public interface AttendanceArchiveService {
+    /**
+     * Moves the attendance of every class that ended more than {@code app.attendance.archive.after-end}
+     * ago out of the Attendance table into the archive, one class per transaction. A class that fails is
+     * logged and left for the next run.
+     */
+    ArchiveReport archiveEndedClasses();
+}
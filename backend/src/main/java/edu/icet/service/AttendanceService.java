@@ -1,33 +1,50 @@
 package edu.icet.service;
 
 import edu.icet.dto.Attendance;
+import edu.icet.dto.AttendanceChange;
+import edu.icet.dto.BitmapIndexStats;
+import edu.icet.dto.response.AttendanceResponse;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
 public interface AttendanceService {
-    List<Attendance> findAllAttendance();
+    /**
+     * Rows of the Attendance table, plus every archived row when {@code includeArchived} is set.
+     */
+    List<AttendanceResponse> findAllAttendance(boolean includeArchived);
 
-    Attendance findById(Integer id);
+    AttendanceResponse findById(Integer id);
 
-    Attendance createAttendance(Attendance attendance);
+    AttendanceResponse createAttendance(Attendance attendance);
 
-    Attendance updateAttendance(Attendance attendance);
+    AttendanceResponse updateAttendance(Attendance attendance);
 
     void deleteAttendance(Integer id);
 
-    List<Attendance> findAttendanceByStudentId(Integer studentId);
+    List<AttendanceResponse> findAttendanceByStudentId(Integer studentId);
 
-    List<Attendance> findAttendanceByClassId(Integer classId);
+    List<AttendanceResponse> findAttendanceByClassId(Integer classId);
 
-    List<Attendance> findAttendanceByStudentAndClass(Integer studentId, Integer classId);
+    List<AttendanceResponse> findAttendanceByStudentAndClass(Integer studentId, Integer classId);
 
-    List<Attendance> findAttendanceByDate(Date date);
+    List<AttendanceResponse> findAttendanceByDate(Date date);
 
-    List<Attendance> findAttendanceByClassAndDate(Integer classId, Date date);
+    List<AttendanceResponse> findAttendanceByClassAndDate(Integer classId, Date date);
 
-    void markAttendance(Integer classId, Date date, Map<Integer, Boolean> studentAttendance);
+    Map<Integer, AttendanceChange> markAttendance(Integer classId, Date date, Map<Integer, Boolean> studentAttendance);
 
     Map<Integer, Double> getAttendancePercentageByClass(Integer studentId);
+
+    Map<Integer, Double> getAttendancePercentagesForClass(Integer classId);
+
+    List<Integer> findAbsentStudents(Integer classId, Date date);
+
+    List<Integer> findStudentsPresentAtLeast(Integer classId, double minPercentage);
+
+    List<LocalDate> findMissedSessions(Integer studentId, Integer classId);
+
+    BitmapIndexStats getBitmapIndexStats();
 }
@@ -0,0 +1,16 @@
+package edu.icet.service;
+
+import edu.icet.dto.SummaryVerification;
+
+public interface AttendanceSummaryService {
+    /**
+     * Recomputes the whole counters table from the Attendance table, in parallel student-id chunks.
+     * The counters of archived classes are kept as they are, since their rows have left the table.
+     */
+    SummaryVerification rebuild();
+
+    /**
+     * Compares the counters table with the Attendance table without changing anything.
+     */
+    SummaryVerification verify();
+}
@@ -0,0 +1,24 @@
+package edu.icet.service;
+
+import edu.icet.dto.ChangeEvent;
+import edu.icet.dto.ChangeTopic;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+public interface ChangeFeedService {
+    /**
+     * Opens a stream of the events on the given topics, narrowed to one student and/or class when given.
+     * With {@code lastEventId}, events since then are replayed if still held; otherwise a {@code resync}
+     * event tells the client to reload. Throws IllegalStateException when the subscriber limit is reached.
+     */
+    SseEmitter subscribe(Set<ChangeTopic> topics, Integer studentId, Integer classId, Long lastEventId);
+
+    /**
+     * Fans a committed change out to the matching subscribers. Services publish events through Spring
+     * rather than calling this, so that nothing is pushed for a transaction that rolls back.
+     */
+    void publish(ChangeEvent event);
+
+    int subscriberCount();
+}
@@ -0,0 +1,27 @@
+package edu.icet.service;
+
+import edu.icet.dto.CheckInOutcome;
+import edu.icet.dto.CheckInSession;
+
+import java.util.Optional;
+
+public interface CheckInService {
+    /**
+     * Opens a self check-in window for today's session of the class, taking a snapshot of its roster.
+     * Throws EntityNotFoundException for an unknown class and IllegalStateException for an archived one.
+     */
+    CheckInSession openSession(Integer classId, int minutes);
+
+    Optional<CheckInSession> findSession(String code);
+
+    /**
+     * Stops accepting check-ins for the code and writes out everything already accepted.
+     */
+    Optional<CheckInSession> closeSession(String code);
+
+    /**
+     * Records the student as present. An {@code ACCEPTED} check-in is journaled but reaches the
+     * Attendance table with the next flush; {@code BUSY} means the write-behind queue is full.
+     */
+    CheckInOutcome checkIn(String code, Integer studentId);
+}
@@ -1,25 +1,43 @@
 package edu.icet.service;
 
 import edu.icet.dto.ClassRequest;
+import edu.icet.dto.RequestDecisionBatch;
+import edu.icet.dto.RequestDecisionBatchResult;
+import edu.icet.dto.response.ClassRequestResponse;
 
 import java.util.List;
 
 public interface ClassRequestService {
-    List<ClassRequest> findAllRequests();
+    List<ClassRequestResponse> findAllRequests();
 
-    ClassRequest findById(Integer id);
+    ClassRequestResponse findById(Integer id);
 
+    /**
+     * Creates a pending request, which holds a seat in the class until it is decided. Throws IllegalStateException
+     * if the student already has a pending request for the class, is already enrolled, or the class is full.
+     */
     ClassRequest createRequest(Integer studentId, Integer classId);
 
     ClassRequest approveRequest(Integer requestId, String notes);
 
     ClassRequest rejectRequest(Integer requestId, String notes);
 
-    List<ClassRequest> findRequestsByStudentId(Integer studentId);
+    /**
+     * Approves or rejects every pending request in the batch in one transaction. Approved students are
+     * enrolled with a single batched insert.
+     */
+    RequestDecisionBatchResult decideRequests(RequestDecisionBatch batch);
 
-    List<ClassRequest> findRequestsByClassId(Integer classId);
+    List<ClassRequestResponse> findRequestsByStudentId(Integer studentId);
 
-    List<ClassRequest> findPendingRequests();
+    List<ClassRequestResponse> findRequestsByClassId(Integer classId);
+
+    List<ClassRequestResponse> findPendingRequests();
+
+    /**
+     * Version token of the pending requests, computed from aggregates without loading them.
+     */
+    String findPendingRequestsVersion();
 
     boolean hasExistingRequest(Integer studentId, Integer classId);
 }
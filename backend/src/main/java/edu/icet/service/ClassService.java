@@ -1,15 +1,26 @@
 package edu.icet.service;
 
 import edu.icet.dto.Class;
-import edu.icet.dto.Student;
+import edu.icet.dto.EnrolmentBatch;
+import edu.icet.dto.EnrolmentBatchResult;
+import edu.icet.dto.projection.ClassSummary;
+import edu.icet.dto.response.ClassResponse;
+import edu.icet.dto.response.StudentResponse;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
-import java.util.Set;
 
 public interface ClassService {
-    List<Class> findAllClasses();
+    List<ClassResponse> findAllClasses();
 
-    Class findById(Integer id);
+    /**
+     * Version token of the whole listing, computed from aggregates without loading any class.
+     */
+    String findAllClassesVersion();
+
+    ClassResponse findById(Integer id);
+
+    String findClassVersion(Integer id);
 
     Class createClass(Class classObj);
 
@@ -17,13 +28,20 @@ public interface ClassService {
 
     void deleteClass(Integer id);
 
-    List<Class> findClassesByStudentId(Integer studentId);
+    List<ClassResponse> findClassesByStudentId(Integer studentId);
+
+    Slice<ClassSummary> findClassesNotEnrolledByStudent(Integer studentId, int page, int size);
+
+    void addStudentToClass(Integer classId, Integer studentId);
 
-    List<Class> findClassesNotEnrolledByStudent(Integer studentId);
+    void removeStudentFromClass(Integer classId, Integer studentId);
 
-    Class addStudentToClass(Integer classId, Integer studentId);
+    EnrolmentBatchResult updateEnrolments(Integer classId, EnrolmentBatch batch);
 
-    Class removeStudentFromClass(Integer classId, Integer studentId);
+    List<StudentResponse> getEnrolledStudents(Integer classId);
 
-    Set<Student> getEnrolledStudents(Integer classId);
+    /**
+     * Version token of a class roster, covering both who is enrolled and edits to their details.
+     */
+    String findRosterVersion(Integer classId);
 }
@@ -0,0 +1,16 @@
+package edu.icet.service;
+
+import edu.icet.dto.ExportFormat;
+import edu.icet.dto.RequestStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface ExportService {
+    long exportAttendance(ExportFormat format, Integer classId, LocalDate from, LocalDate to, OutputStream out) throws IOException;
+
+    long exportEnrolments(ExportFormat format, Integer classId, OutputStream out) throws IOException;
+
+    long exportClassRequests(ExportFormat format, Integer classId, RequestStatus status, LocalDate from, LocalDate to, OutputStream out) throws IOException;
+}
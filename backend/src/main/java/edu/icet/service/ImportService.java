@@ -0,0 +1,14 @@
+package edu.icet.service;
+
+import edu.icet.dto.ImportReport;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface ImportService {
+    ImportReport importStudents(Reader csv) throws IOException;
+
+    ImportReport importClasses(Reader csv) throws IOException;
+
+    ImportReport importAttendance(Reader csv) throws IOException;
+}
@@ -0,0 +1,18 @@
+package edu.icet.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.Optional;
+
+public interface PictureStore {
+    /**
+     * Stores the bytes under their SHA-256 content hash and returns that hash.
+     * Storing the same content twice is a no-op.
+     */
+    String put(byte[] content) throws IOException;
+
+    Optional<Resource> get(String hash);
+
+    boolean contains(String hash);
+}
@@ -1,18 +1,29 @@
 package edu.icet.service;
 
 import edu.icet.dto.Student;
+import edu.icet.dto.StudentPage;
+import edu.icet.dto.response.StudentResponse;
+import org.springframework.core.io.Resource;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public interface StudentService {
-    List<Student> findAllStudents();
+    List<StudentResponse> findAllStudents();
 
-    void addStudent(Student student) throws IOException;
+    StudentPage findStudentPage(Integer after, int limit, Set<String> fields);
 
-    Student searchStudentById(Integer id);
+    void addStudent(Student student, byte[] profilePic) throws IOException;
 
-    void updateStudent(Student student) throws IOException;
+    StudentResponse searchStudentById(Integer id);
+
+    void updateStudent(Student student, byte[] profilePic) throws IOException;
 
     void deleteStudentById(Integer id);
+
+    Optional<String> findProfilePicHash(Integer id);
+
+    Optional<Resource> loadProfilePic(String hash);
 }
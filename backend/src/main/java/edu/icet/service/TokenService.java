@@ -0,0 +1,12 @@
+package edu.icet.service;
+
+import edu.icet.dto.AuthPrincipal;
+import edu.icet.dto.User;
+
+import java.util.Optional;
+
+public interface TokenService {
+    String issue(User user);
+
+    Optional<AuthPrincipal> verify(String token);
+}
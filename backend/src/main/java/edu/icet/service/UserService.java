@@ -1,24 +1,30 @@
 package edu.icet.service;
 
 import edu.icet.dto.User;
+import edu.icet.dto.response.UserResponse;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
-    List<User> findAllUsers();
+    List<UserResponse> findAllUsers();
 
-    User findById(Integer id);
+    UserResponse findById(Integer id);
 
     Optional<User> findByUsername(String username);
 
     Optional<User> findByStudentId(Integer studentId);
 
-    User createUser(User user);
+    UserResponse createUser(User user);
 
-    User updateUser(User user);
+    UserResponse updateUser(User user);
 
     void deleteUser(Integer id);
 
-    boolean authenticate(String username, String password);
+    /**
+     * Checks the credentials with one user lookup, hashing on the password executor. Completes with
+     * the user on success and empty otherwise; throws RejectedExecutionException when the executor is saturated.
+     */
+    CompletableFuture<Optional<User>> authenticate(String username, String password);
 }
@@ -0,0 +1,133 @@
+package edu.icet.service.impl;
+
+import edu.icet.dto.ArchiveReport;
+import edu.icet.dto.ArchivedAttendance;
+import edu.icet.dto.ArchivedClass;
+import edu.icet.repository.ArchivedClassRepository;
+import edu.icet.repository.AttendanceArchive;
+import edu.icet.repository.AttendanceRepository;
+import edu.icet.repository.ClassRepository;
+import edu.icet.service.AttendanceArchiveService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the Attendance table down to the classes still running. Each ended class is copied into its
+ * archive file under row locks, then registered and deleted from the table in the same transaction,
+ * so its attendance is always in exactly one place that readers look at. The attendance summary is
+ * left alone: archived rows still count towards it.
+ */
+@Slf4j
+@Service
+public class AttendanceArchiveServiceImpl implements AttendanceArchiveService {
+
+    private final ClassRepository classRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final ArchivedClassRepository archivedClassRepository;
+    private final AttendanceArchive attendanceArchive;
+    private final TransactionTemplate classTransaction;
+    private final Duration afterEnd;
+    private final ScheduledExecutorService scheduler;
+
+    public AttendanceArchiveServiceImpl(ClassRepository classRepository,
+                                        AttendanceRepository attendanceRepository,
+                                        ArchivedClassRepository archivedClassRepository,
+                                        AttendanceArchive attendanceArchive,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.attendance.archive.enabled:false}") boolean enabled,
+                                        @Value("${app.attendance.archive.after-end:30d}") Duration afterEnd,
+                                        @Value("${app.attendance.archive.initial-delay:5m}") Duration initialDelay,
+                                        @Value("${app.attendance.archive.interval:24h}") Duration interval) {
+        this.classRepository = classRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.archivedClassRepository = archivedClassRepository;
+        this.attendanceArchive = attendanceArchive;
+        this.classTransaction = new TransactionTemplate(transactionManager);
+        this.afterEnd = afterEnd;
+
+        if (enabled) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "attendance-archive");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::archiveScheduled, initialDelay.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public synchronized ArchiveReport archiveEndedClasses() {
+        long start = System.currentTimeMillis();
+        Date cutoff = java.sql.Date.valueOf(LocalDate.now().minusDays(afterEnd.toDays()));
+
+        int classes = 0;
+        long rows = 0;
+        long bytes = 0;
+        for (Integer classId : classRepository.findUnarchivedIdsEndedBefore(cutoff)) {
+            try {
+                ArchivedClass archived = classTransaction.execute(status -> archive(classId));
+                classes++;
+                rows += archived.getRowCount();
+                bytes += archived.getFileBytes();
+            } catch (RuntimeException e) {
+                log.warn("Could not archive the attendance of class {}", classId, e);
+            }
+        }
+
+        ArchiveReport report = new ArchiveReport(classes, rows, bytes, System.currentTimeMillis() - start);
+        if (classes > 0) {
+            log.info("Archived the attendance of {} classes: {} rows in {} bytes, {} ms", classes, rows, bytes, report.elapsedMillis());
+        }
+        return report;
+    }
+
+    private ArchivedClass archive(Integer classId) {
+        List<ArchivedAttendance> rows = attendanceRepository.lockClassForArchive(classId);
+        long bytes;
+        try {
+            bytes = attendanceArchive.store(classId, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the attendance archive of class " + classId, e);
+        }
+
+        int present = (int) rows.stream().filter(ArchivedAttendance::present).count();
+        Date firstDate = rows.stream().map(ArchivedAttendance::date).min(Comparator.naturalOrder()).map(java.sql.Date::valueOf).orElse(null);
+        Date lastDate = rows.stream().map(ArchivedAttendance::date).max(Comparator.naturalOrder()).map(java.sql.Date::valueOf).orElse(null);
+        ArchivedClass archived = archivedClassRepository.save(
+                new ArchivedClass(classId, rows.size(), present, firstDate, lastDate, bytes, new Date()));
+        attendanceRepository.deleteByClass(classId);
+        return archived;
+    }
+
+    private void archiveScheduled() {
+        try {
+            archiveEndedClasses();
+        } catch (RuntimeException e) {
+            log.error("Attendance archive run failed", e);
+        }
+    }
+}
@@ -1,130 +1,349 @@
 package edu.icet.service.impl;
 
+import edu.icet.dto.ArchivedAttendance;
 import edu.icet.dto.Attendance;
+import edu.icet.dto.AttendanceChange;
+import edu.icet.dto.AttendanceDelta;
+import edu.icet.dto.BitmapIndexStats;
+import edu.icet.dto.ChangeEvent;
 import edu.icet.dto.Class;
-import edu.icet.dto.Student;
+import edu.icet.dto.projection.AttendanceTally;
+import edu.icet.dto.response.AttendanceResponse;
+import edu.icet.dto.response.ClassRef;
+import edu.icet.dto.response.StudentRef;
+import edu.icet.repository.AttendanceArchive;
+import edu.icet.repository.AttendanceBitmapIndex;
 import edu.icet.repository.AttendanceRepository;
+import edu.icet.repository.AttendanceSummaryRepository;
 import edu.icet.repository.ClassRepository;
 import edu.icet.repository.StudentRepository;
 import edu.icet.service.AttendanceService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AttendanceServiceImpl implements AttendanceService {
 
+    private static final Comparator<AttendanceResponse> BY_ID = Comparator.comparing(AttendanceResponse::id);
+    private static final Comparator<AttendanceResponse> BY_DATE = Comparator.comparing(AttendanceResponse::date)
+            .thenComparing(AttendanceResponse::id);
+
     private final AttendanceRepository attendanceRepository;
     private final ClassRepository classRepository;
     private final StudentRepository studentRepository;
+    private final AttendanceSummaryRepository attendanceSummaryRepository;
+    private final AttendanceBitmapIndex attendanceBitmapIndex;
+    private final AttendanceArchive attendanceArchive;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    public List<Attendance> findAllAttendance() {
-        return attendanceRepository.findAll();
+    public List<AttendanceResponse> findAllAttendance(boolean includeArchived) {
+        List<AttendanceResponse> current = attendanceRepository.findAllResponses();
+        if (!includeArchived) {
+            return current;
+        }
+        return withArchived(current, attendanceArchive.stream(null, null, null).toList(), BY_ID);
     }
 
     @Override
-    public Attendance findById(Integer id) {
-        return attendanceRepository.findById(id)
+    public AttendanceResponse findById(Integer id) {
+        return attendanceRepository.findResponseById(id)
+                .or(() -> attendanceArchive.findById(id).flatMap(row -> toResponses(List.of(row)).stream().findFirst()))
                 .orElseThrow(() -> new EntityNotFoundException("Attendance record not found with id: " + id));
     }
 
     @Override
-    public Attendance createAttendance(Attendance attendance) {
-        return attendanceRepository.save(attendance);
+    @Transactional
+    public AttendanceResponse createAttendance(Attendance attendance) {
+        requireNotArchived(attendance);
+        Attendance saved = attendanceRepository.save(attendance);
+        attendanceSummaryRepository.applyDeltas(List.of(AttendanceDelta.added(saved)));
+        indexAdded(saved);
+        publishMarked(saved);
+        return findById(saved.getId());
     }
 
     @Override
-    public Attendance updateAttendance(Attendance attendance) {
-        return attendanceRepository.save(attendance);
+    @Transactional
+    public AttendanceResponse updateAttendance(Attendance attendance) {
+        requireNotArchived(attendance);
+        List<AttendanceDelta> deltas = new ArrayList<>();
+        if (attendance.getId() != null) {
+            // Capture the old state before save() merges the new one into the managed entity
+            attendanceRepository.findById(attendance.getId()).ifPresent(previous -> {
+                deltas.add(AttendanceDelta.removed(previous));
+                indexRemoved(previous);
+            });
+        }
+        Attendance saved = attendanceRepository.save(attendance);
+        deltas.add(AttendanceDelta.added(saved));
+        attendanceSummaryRepository.applyDeltas(deltas);
+        indexAdded(saved);
+        publishMarked(saved);
+        // Read back with the student and class names; the saved entity only holds their ids
+        return findById(saved.getId());
     }
 
     @Override
+    @Transactional
     public void deleteAttendance(Integer id) {
-        attendanceRepository.deleteById(id);
+        attendanceRepository.findById(id).ifPresent(attendance -> {
+            attendanceRepository.delete(attendance);
+            attendanceSummaryRepository.applyDeltas(List.of(AttendanceDelta.removed(attendance)));
+            indexRemoved(attendance);
+            publishMarked(attendance);
+        });
     }
 
     @Override
-    public List<Attendance> findAttendanceByStudentId(Integer studentId) {
-        return attendanceRepository.findByStudentId(studentId);
+    public List<AttendanceResponse> findAttendanceByStudentId(Integer studentId) {
+        return withArchived(attendanceRepository.findResponsesByStudentId(studentId),
+                attendanceArchive.findByStudent(studentId), BY_DATE);
     }
 
     @Override
-    public List<Attendance> findAttendanceByClassId(Integer classId) {
-        return attendanceRepository.findByClassAttendedId(classId);
+    public List<AttendanceResponse> findAttendanceByClassId(Integer classId) {
+        return withArchived(attendanceRepository.findResponsesByClassId(classId),
+                attendanceArchive.findByClass(classId), BY_DATE);
     }
 
     @Override
-    public List<Attendance> findAttendanceByStudentAndClass(Integer studentId, Integer classId) {
-        return attendanceRepository.findByStudentIdAndClassAttendedId(studentId, classId);
+    public List<AttendanceResponse> findAttendanceByStudentAndClass(Integer studentId, Integer classId) {
+        return withArchived(attendanceRepository.findResponsesByStudentIdAndClassId(studentId, classId),
+                attendanceArchive.findByStudentAndClass(studentId, classId), BY_DATE);
     }
 
     @Override
-    public List<Attendance> findAttendanceByDate(Date date) {
-        return attendanceRepository.findByDate(date);
+    public List<AttendanceResponse> findAttendanceByDate(Date date) {
+        return withArchived(attendanceRepository.findResponsesByDate(date),
+                attendanceArchive.findByDate(AttendanceBitmapIndex.toLocalDate(date)), BY_ID);
     }
 
     @Override
-    public List<Attendance> findAttendanceByClassAndDate(Integer classId, Date date) {
-        return attendanceRepository.findByClassAttendedIdAndDate(classId, date);
+    public List<AttendanceResponse> findAttendanceByClassAndDate(Integer classId, Date date) {
+        return withArchived(attendanceRepository.findResponsesByClassIdAndDate(classId, date),
+                attendanceArchive.findByClassAndDate(classId, AttendanceBitmapIndex.toLocalDate(date)), BY_ID);
     }
 
     @Override
-    public void markAttendance(Integer classId, Date date, Map<Integer, Boolean> studentAttendance) {
-        Class classObj = classRepository.findById(classId)
-                .orElseThrow(() -> new EntityNotFoundException("Class not found with id: " + classId));
+    @Transactional
+    public Map<Integer, AttendanceChange> markAttendance(Integer classId, Date date, Map<Integer, Boolean> studentAttendance) {
+        if (!classRepository.existsById(classId)) {
+            throw new EntityNotFoundException("Class not found with id: " + classId);
+        }
+        requireNotArchived(classId);
 
-        // Delete existing attendance records for this class and date to avoid duplicates
-        List<Attendance> existingRecords = attendanceRepository.findByClassAttendedIdAndDate(classId, date);
-        attendanceRepository.deleteAll(existingRecords);
+        // Resolve every student id in one query instead of one findById per student
+        Set<Integer> knownStudents = new HashSet<>(studentRepository.findExistingIds(studentAttendance.keySet()));
+        for (Integer studentId : studentAttendance.keySet()) {
+            if (!knownStudents.contains(studentId)) {
+                throw new EntityNotFoundException("Student not found with id: " + studentId);
+            }
+        }
+
+        Map<Integer, Attendance> existingByStudent = new HashMap<>();
+        List<Attendance> toDelete = new ArrayList<>();
+        List<AttendanceDelta> deltas = new ArrayList<>();
+        for (Attendance existing : attendanceRepository.findSessionForUpdate(classId, date)) {
+            if (existingByStudent.putIfAbsent(existing.getStudent().getId(), existing) != null) {
+                // Duplicate row left behind by the old delete-and-reinsert path
+                toDelete.add(existing);
+                deltas.add(AttendanceDelta.removed(existing));
+            }
+        }
 
-        // Create new attendance records
-        List<Attendance> attendanceRecords = new ArrayList<>();
+        Map<Integer, AttendanceChange> changes = new TreeMap<>();
+        List<Attendance> toInsert = new ArrayList<>();
+        Class classRef = classRepository.getReferenceById(classId);
 
         for (Map.Entry<Integer, Boolean> entry : studentAttendance.entrySet()) {
             Integer studentId = entry.getKey();
-            Boolean present = entry.getValue();
+            boolean present = Boolean.TRUE.equals(entry.getValue());
 
-            Student student = studentRepository.findById(studentId)
-                    .orElseThrow(() -> new EntityNotFoundException("Student not found with id: " + studentId));
-
-            Attendance attendance = new Attendance();
-            attendance.setStudent(student);
-            attendance.setClassAttended(classObj);
-            attendance.setDate(date);
-            attendance.setPresent(present);
+            Attendance existing = existingByStudent.remove(studentId);
+            if (existing == null) {
+                Attendance attendance = new Attendance();
+                attendance.setStudent(studentRepository.getReferenceById(studentId));
+                attendance.setClassAttended(classRef);
+                attendance.setDate(date);
+                attendance.setPresent(present);
+                toInsert.add(attendance);
+                deltas.add(new AttendanceDelta(studentId, classId, present ? 1 : 0, 1));
+                changes.put(studentId, AttendanceChange.CREATED);
+            } else if (existing.getPresent() != present) {
+                // Managed entity, flushed as a batched UPDATE on commit
+                existing.setPresent(present);
+                deltas.add(new AttendanceDelta(studentId, classId, present ? 1 : -1, 0));
+                changes.put(studentId, AttendanceChange.UPDATED);
+            } else {
+                changes.put(studentId, AttendanceChange.UNCHANGED);
+            }
+        }
 
-            attendanceRecords.add(attendance);
+        // Students missing from the submission are dropped from the session, as before
+        for (Map.Entry<Integer, Attendance> leftover : existingByStudent.entrySet()) {
+            toDelete.add(leftover.getValue());
+            deltas.add(AttendanceDelta.removed(leftover.getValue()));
+            changes.put(leftover.getKey(), AttendanceChange.REMOVED);
         }
 
-        attendanceRepository.saveAll(attendanceRecords);
+        attendanceRepository.deleteAll(toDelete);
+        attendanceRepository.saveAll(toInsert);
+        attendanceSummaryRepository.applyDeltas(deltas);
+        attendanceBitmapIndex.replaceSession(classId, date, studentAttendance);
+
+        List<Integer> changedStudents = changes.entrySet().stream()
+                .filter(change -> change.getValue() != AttendanceChange.UNCHANGED)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!changedStudents.isEmpty()) {
+            eventPublisher.publishEvent(ChangeEvent.attendanceMarked(classId, AttendanceBitmapIndex.toLocalDate(date), changedStudents));
+        }
+        return changes;
     }
 
     @Override
     public Map<Integer, Double> getAttendancePercentageByClass(Integer studentId) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new EntityNotFoundException("Student not found with id: " + studentId));
+        if (!studentRepository.existsById(studentId)) {
+            throw new EntityNotFoundException("Student not found with id: " + studentId);
+        }
+        return toPercentages(attendanceSummaryRepository.tallyByClassForStudent(studentId));
+    }
 
-        // Get all classes the student is enrolled in
-        Set<Class> enrolledClasses = student.getClasses();
+    @Override
+    public Map<Integer, Double> getAttendancePercentagesForClass(Integer classId) {
+        if (!classRepository.existsById(classId)) {
+            throw new EntityNotFoundException("Class not found with id: " + classId);
+        }
+        return toPercentages(attendanceSummaryRepository.tallyByStudentForClass(classId));
+    }
 
-        Map<Integer, Double> percentages = new HashMap<>();
+    @Override
+    public List<Integer> findAbsentStudents(Integer classId, Date date) {
+        if (attendanceBitmapIndex.isReady()) {
+            return Arrays.stream(attendanceBitmapIndex.absentOn(classId, AttendanceBitmapIndex.toLocalDate(date))).boxed().toList();
+        }
+        List<Integer> absent = new ArrayList<>();
+        attendanceRepository.findByClassAttendedIdAndDate(classId, date).stream()
+                .filter(a -> !a.getPresent())
+                .forEach(a -> absent.add(a.getStudent().getId()));
+        attendanceArchive.findByClassAndDate(classId, AttendanceBitmapIndex.toLocalDate(date)).stream()
+                .filter(row -> !row.present())
+                .forEach(row -> absent.add(row.studentId()));
+        return absent.stream().distinct().sorted().toList();
+    }
 
-        for (Class classObj : enrolledClasses) {
-            Integer classId = classObj.getId();
+    @Override
+    public List<Integer> findStudentsPresentAtLeast(Integer classId, double minPercentage) {
+        if (attendanceBitmapIndex.isReady()) {
+            return Arrays.stream(attendanceBitmapIndex.studentsPresentAtLeast(classId, minPercentage)).boxed().toList();
+        }
+        return attendanceSummaryRepository.tallyByStudentForClass(classId).stream()
+                .filter(t -> t.getTotal() > 0 && t.getPresent() * 100.0 / t.getTotal() >= minPercentage)
+                .map(AttendanceTally::getId)
+                .sorted()
+                .toList();
+    }
 
-            // Get attendance counts
-            Long present = attendanceRepository.countPresentByStudentIdAndClassId(studentId, classId);
-            Long total = attendanceRepository.countTotalByStudentIdAndClassId(studentId, classId);
+    @Override
+    public List<LocalDate> findMissedSessions(Integer studentId, Integer classId) {
+        if (attendanceBitmapIndex.isReady()) {
+            return attendanceBitmapIndex.missedSessions(classId, studentId);
+        }
+        List<LocalDate> missed = new ArrayList<>();
+        attendanceRepository.findByStudentIdAndClassAttendedId(studentId, classId).stream()
+                .filter(a -> !a.getPresent())
+                .forEach(a -> missed.add(AttendanceBitmapIndex.toLocalDate(a.getDate())));
+        attendanceArchive.findByStudentAndClass(studentId, classId).stream()
+                .filter(row -> !row.present())
+                .forEach(row -> missed.add(row.date()));
+        return missed.stream().sorted().toList();
+    }
+
+    @Override
+    public BitmapIndexStats getBitmapIndexStats() {
+        return attendanceBitmapIndex.stats();
+    }
+
+    private void requireNotArchived(Attendance attendance) {
+        if (attendance.getClassAttended() != null) {
+            requireNotArchived(attendance.getClassAttended().getId());
+        }
+    }
+
+    private void requireNotArchived(Integer classId) {
+        if (attendanceArchive.isArchived(classId)) {
+            throw new IllegalStateException("Attendance of class " + classId + " is archived and can no longer change");
+        }
+    }
+
+    // A class being archived is served from its file just before its rows leave the table, so table rows win
+    private List<AttendanceResponse> withArchived(List<AttendanceResponse> current, List<ArchivedAttendance> archived,
+                                                  Comparator<AttendanceResponse> order) {
+        if (archived.isEmpty()) {
+            return current;
+        }
+        Set<Integer> currentIds = current.stream().map(AttendanceResponse::id).collect(Collectors.toSet());
+        List<AttendanceResponse> combined = new ArrayList<>(current);
+        combined.addAll(toResponses(archived.stream().filter(row -> !currentIds.contains(row.id())).toList()));
+        combined.sort(order);
+        return combined;
+    }
+
+    // Rows of students or classes deleted since are left out, as the inner joins of the table queries do
+    private List<AttendanceResponse> toResponses(List<ArchivedAttendance> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, StudentRef> students = studentRepository.findRefsByIdIn(
+                        rows.stream().map(ArchivedAttendance::studentId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(StudentRef::id, Function.identity()));
+        Map<Integer, ClassRef> classes = classRepository.findRefsByIdIn(
+                        rows.stream().map(ArchivedAttendance::classId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(ClassRef::id, Function.identity()));
 
-            // Calculate percentage
-            Double percentage = (total > 0) ? (present * 100.0 / total) : 0.0;
-            percentages.put(classId, percentage);
+        List<AttendanceResponse> responses = new ArrayList<>(rows.size());
+        for (ArchivedAttendance row : rows) {
+            StudentRef student = students.get(row.studentId());
+            ClassRef classRef = classes.get(row.classId());
+            if (student != null && classRef != null) {
+                responses.add(new AttendanceResponse(row.id(), student, classRef, java.sql.Date.valueOf(row.date()),
+                        row.present(), row.notes()));
+            }
         }
+        return responses;
+    }
+
+    private void indexAdded(Attendance attendance) {
+        attendanceBitmapIndex.record(attendance.getClassAttended().getId(), attendance.getDate(),
+                attendance.getStudent().getId(), Boolean.TRUE.equals(attendance.getPresent()));
+    }
 
+    private void publishMarked(Attendance attendance) {
+        eventPublisher.publishEvent(ChangeEvent.attendanceMarked(attendance.getClassAttended().getId(),
+                AttendanceBitmapIndex.toLocalDate(attendance.getDate()), List.of(attendance.getStudent().getId())));
+    }
+
+    private void indexRemoved(Attendance attendance) {
+        attendanceBitmapIndex.remove(attendance.getClassAttended().getId(), attendance.getDate(), attendance.getStudent().getId());
+    }
+
+    private static Map<Integer, Double> toPercentages(List<AttendanceTally> tallies) {
+        Map<Integer, Double> percentages = new HashMap<>();
+        for (AttendanceTally tally : tallies) {
+            long total = tally.getTotal() != null ? tally.getTotal() : 0;
+            long present = tally.getPresent() != null ? tally.getPresent() : 0;
+            percentages.put(tally.getId(), total > 0 ? present * 100.0 / total : 0.0);
+        }
         return percentages;
     }
 }
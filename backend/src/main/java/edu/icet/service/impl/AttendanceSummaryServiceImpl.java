@@ -0,0 +1,103 @@
+package edu.icet.service.impl;
+
+import edu.icet.dto.SummaryVerification;
+import edu.icet.repository.AttendanceRepository;
+import edu.icet.repository.AttendanceSummaryRepository;
+import edu.icet.service.AttendanceSummaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+@Slf4j
+@Service
+public class AttendanceSummaryServiceImpl implements AttendanceSummaryService {
+
+    private final AttendanceSummaryRepository summaryRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int threads;
+
+    public AttendanceSummaryServiceImpl(AttendanceSummaryRepository summaryRepository,
+                                        AttendanceRepository attendanceRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.attendance.summary.chunk-size:1000}") int chunkSize,
+                                        @Value("${app.attendance.summary.threads:4}") int threads) {
+        this.summaryRepository = summaryRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    // Fills the table the first time the application starts against existing attendance data
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (summaryRepository.count() == 0 && attendanceRepository.count() > 0) {
+            log.info("Attendance summary table is empty, rebuilding it");
+            rebuild();
+        }
+    }
+
+    @Override
+    public SummaryVerification rebuild() {
+        SummaryVerification result = runChunked((from, to) -> {
+            summaryRepository.rebuildStudentRange(from, to);
+            return 0L;
+        });
+        log.info("Rebuilt attendance summary in {} chunks in {} ms", result.chunks(), result.elapsedMillis());
+        return result;
+    }
+
+    @Override
+    public SummaryVerification verify() {
+        SummaryVerification result = runChunked(summaryRepository::countDrift);
+        if (result.mismatches() > 0) {
+            log.warn("Attendance summary has {} rows out of step with the Attendance table", result.mismatches());
+        }
+        return result;
+    }
+
+    private SummaryVerification runChunked(BiFunction<Integer, Integer, Long> chunkWork) {
+        long start = System.currentTimeMillis();
+        int maxId = summaryRepository.maxStudentId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int from = 0; from <= maxId; from += chunkSize) {
+                int lo = from;
+                int hi = from + chunkSize - 1;
+                results.add(executor.submit(() -> chunkTransaction.execute(status -> chunkWork.apply(lo, hi))));
+            }
+
+            long mismatches = 0;
+            for (Future<Long> result : results) {
+                Long count = result.get();
+                mismatches += count != null ? count : 0;
+            }
+            return new SummaryVerification(results.size(), mismatches, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attendance summary job interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Attendance summary job failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
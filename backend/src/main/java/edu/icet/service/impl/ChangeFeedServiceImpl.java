@@ -0,0 +1,315 @@
+package edu.icet.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.icet.dto.ChangeEvent;
+import edu.icet.dto.ChangeTopic;
+import edu.icet.service.ChangeFeedService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of committed changes to SSE subscribers. An idle subscriber costs an async
+ * request and an empty queue, no thread. Each event is rendered to JSON once and offered to the
+ * subscribers indexed under its student ids and class, plus the unfiltered ones; a subscriber with
+ * something queued gets a virtual thread that writes until the queue is empty, so a slow client
+ * only ever holds up itself. A full queue is dropped and replaced with a {@code resync} event.
+ * <p>
+ * Subscribers are published as {@code events.subscribers}, overflowed buffers as {@code events.overflows}.
+ */
+@Slf4j
+@Service
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    private static final Frame HEARTBEAT = new Frame(0, null, null);
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final int replaySize;
+    private final Counter overflows;
+
+    private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Set<Subscriber>> byStudent = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Subscriber>> byClass = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats;
+
+    // Guarded by this. Ids start from the clock, so ids a client saw before a restart are older than any held now
+    private final Deque<Frame> recent = new ArrayDeque<>();
+    private long lastId = System.currentTimeMillis();
+
+    public ChangeFeedServiceImpl(ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.events.buffer-size:64}") int bufferSize,
+                                 @Value("${app.events.max-subscribers:10000}") int maxSubscribers,
+                                 @Value("${app.events.timeout:30m}") Duration timeout,
+                                 @Value("${app.events.heartbeat:20s}") Duration heartbeat,
+                                 @Value("${app.events.replay-size:1024}") int replaySize) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.replaySize = replaySize;
+        this.overflows = Counter.builder("events.overflows")
+                .description("Subscribers whose buffer overflowed and were told to resync")
+                .register(meterRegistry);
+        Gauge.builder("events.subscribers", subscribers, AtomicInteger::get)
+                .description("Open change feed subscriptions")
+                .register(meterRegistry);
+
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        allSubscribers().forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    @Override
+    public SseEmitter subscribe(Set<ChangeTopic> topics, Integer studentId, Integer classId, Long lastEventId) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("Too many event subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, topics.isEmpty() ? EnumSet.allOf(ChangeTopic.class) : EnumSet.copyOf(topics),
+                studentId, classId);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(subscriber));
+
+        // Under the publish lock, so no event falls between the replay and the live feed
+        synchronized (this) {
+            register(subscriber);
+            if (lastEventId != null && lastEventId != lastId) {
+                Frame oldest = recent.peekFirst();
+                if (lastEventId > lastId || oldest == null || oldest.id() > lastEventId + 1) {
+                    subscriber.overflowed = true;
+                } else {
+                    for (Frame frame : recent) {
+                        if (frame.id() > lastEventId && subscriber.matches(frame.event())) {
+                            subscriber.offer(frame);
+                        }
+                    }
+                }
+            }
+        }
+        // Sends the headers straight away, so the client sees the stream open before the first event
+        subscriber.offer(HEARTBEAT);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(ChangeEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Dropping change event {} that failed to serialise", event, e);
+            return;
+        }
+
+        // One publisher at a time, so every subscriber sees ids in ascending order
+        synchronized (this) {
+            Frame frame = new Frame(++lastId, event, json);
+            recent.addLast(frame);
+            if (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+
+            deliver(frame, unfiltered);
+            if (event.classId() != null) {
+                deliver(frame, byClass.get(event.classId()));
+            }
+            if (event.studentIds() != null) {
+                for (Integer studentId : event.studentIds()) {
+                    deliver(frame, byStudent.get(studentId));
+                }
+            }
+        }
+    }
+
+    @Override
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    private void deliver(Frame frame, Set<Subscriber> candidates) {
+        if (candidates == null) {
+            return;
+        }
+        for (Subscriber subscriber : candidates) {
+            if (subscriber.matches(frame.event())) {
+                subscriber.offer(frame);
+                schedule(subscriber);
+            }
+        }
+    }
+
+    // Idle streams get a comment line, which keeps proxies from closing them and finds clients that left without a word
+    private void heartbeat() {
+        for (Subscriber subscriber : allSubscribers()) {
+            if (subscriber.queue.isEmpty()) {
+                subscriber.offer(HEARTBEAT);
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.closed.get() && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                if (subscriber.overflowed) {
+                    subscriber.overflowed = false;
+                    subscriber.emitter.send(SseEmitter.event().name("resync").data("{}"));
+                    continue;
+                }
+                Frame frame = subscriber.queue.poll();
+                if (frame == null) {
+                    break;
+                }
+                subscriber.emitter.send(frame == HEARTBEAT
+                        ? SseEmitter.event().comment("")
+                        : SseEmitter.event().id(Long.toString(frame.id())).name(frame.event().type()).data(frame.json()));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Gone, or already completed
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Anything offered after the last poll but before draining was cleared
+        if (!subscriber.queue.isEmpty() || subscriber.overflowed) {
+            schedule(subscriber);
+        }
+    }
+
+    private void register(Subscriber subscriber) {
+        if (subscriber.studentId != null) {
+            byStudent.compute(subscriber.studentId, (id, set) -> add(set, subscriber));
+        } else if (subscriber.classId != null) {
+            byClass.compute(subscriber.classId, (id, set) -> add(set, subscriber));
+        } else {
+            unfiltered.add(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (subscriber.studentId != null) {
+            byStudent.computeIfPresent(subscriber.studentId, (id, set) -> without(set, subscriber));
+        } else if (subscriber.classId != null) {
+            byClass.computeIfPresent(subscriber.classId, (id, set) -> without(set, subscriber));
+        } else {
+            unfiltered.remove(subscriber);
+        }
+        subscribers.decrementAndGet();
+    }
+
+    private static Set<Subscriber> add(Set<Subscriber> set, Subscriber subscriber) {
+        Set<Subscriber> result = set != null ? set : ConcurrentHashMap.newKeySet();
+        result.add(subscriber);
+        return result;
+    }
+
+    private static Set<Subscriber> without(Set<Subscriber> set, Subscriber subscriber) {
+        set.remove(subscriber);
+        return set.isEmpty() ? null : set;
+    }
+
+    private List<Subscriber> allSubscribers() {
+        List<Subscriber> all = new ArrayList<>(unfiltered);
+        byStudent.values().forEach(all::addAll);
+        byClass.values().forEach(all::addAll);
+        return all;
+    }
+
+    private record Frame(long id, ChangeEvent event, String json) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<ChangeTopic> topics;
+        private final Integer studentId;
+        private final Integer classId;
+        private final ArrayBlockingQueue<Frame> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean overflowed;
+
+        private Subscriber(SseEmitter emitter, Set<ChangeTopic> topics, Integer studentId, Integer classId) {
+            this.emitter = emitter;
+            this.topics = topics;
+            this.studentId = studentId;
+            this.classId = classId;
+        }
+
+        private boolean matches(ChangeEvent event) {
+            return topics.contains(event.topic())
+                    && (studentId == null || event.studentIds() != null && event.studentIds().contains(studentId))
+                    && (classId == null || classId.equals(event.classId()));
+        }
+
+        // A client this far behind is told to reload rather than fed a stale backlog
+        private void offer(Frame frame) {
+            if (!queue.offer(frame)) {
+                queue.clear();
+                overflowed = true;
+                overflows.increment();
+            }
+        }
+    }
+}
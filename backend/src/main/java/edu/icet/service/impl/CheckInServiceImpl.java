@@ -0,0 +1,395 @@
+package edu.icet.service.impl;
+
+import edu.icet.dto.AttendanceDelta;
+import edu.icet.dto.ChangeEvent;
+import edu.icet.dto.CheckIn;
+import edu.icet.dto.CheckInOutcome;
+import edu.icet.dto.CheckInSession;
+import edu.icet.repository.AttendanceArchive;
+import edu.icet.repository.AttendanceBitmapIndex;
+import edu.icet.repository.AttendanceRepository;
+import edu.icet.repository.AttendanceSummaryRepository;
+import edu.icet.repository.CheckInJournal;
+import edu.icet.repository.ClassRepository;
+import edu.icet.service.CheckInService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Self check-in for the start-of-lecture rush. Accepting a check-in touches no database: the code
+ * and roster are checked against an in-memory session, duplicates are caught by its set of
+ * checked-in students, and the check-in is journaled and queued. A single flusher thread drains the
+ * queue every {@code app.checkin.flush-interval}, or as soon as {@code batch-size} check-ins are
+ * waiting, and writes each class and day in one transaction. Groups that fail are retried on the
+ * next flush and stay in the journal until they succeed. When queued and retrying check-ins reach
+ * {@code queue-capacity}, new ones are turned away as {@code BUSY} instead of piling up.
+ * <p>
+ * Sessions live in this instance only; with several instances the check-in traffic for a code has
+ * to reach the one that opened it.
+ */
+@Slf4j
+@Service
+public class CheckInServiceImpl implements CheckInService {
+
+    private static final char[] CODE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int CODE_LENGTH = 6;
+
+    private final ClassRepository classRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceSummaryRepository attendanceSummaryRepository;
+    private final AttendanceBitmapIndex attendanceBitmapIndex;
+    private final AttendanceArchive attendanceArchive;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CheckInJournal journal;
+    private final TransactionTemplate transactionTemplate;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration defaultWindow;
+    private final Duration maxWindow;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ArrayBlockingQueue<CheckIn> queue;
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Appending to the journal and queueing happen together, so a rotation never splits them
+    private final Object acceptLock = new Object();
+
+    // Only touched by the flusher thread; the counter is read by the acceptors and the gauge
+    private final List<CheckIn> retrying = new ArrayList<>();
+    private final AtomicInteger retryCount = new AtomicInteger();
+
+    private final Map<CheckInOutcome, Counter> outcomes = new EnumMap<>(CheckInOutcome.class);
+    private final Timer flushTimer;
+    private final DistributionSummary flushRows;
+    private final Counter flushFailures;
+
+    public CheckInServiceImpl(ClassRepository classRepository,
+                              AttendanceRepository attendanceRepository,
+                              AttendanceSummaryRepository attendanceSummaryRepository,
+                              AttendanceBitmapIndex attendanceBitmapIndex,
+                              AttendanceArchive attendanceArchive,
+                              ApplicationEventPublisher eventPublisher,
+                              CheckInJournal journal,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.checkin.queue-capacity:10000}") int queueCapacity,
+                              @Value("${app.checkin.batch-size:500}") int batchSize,
+                              @Value("${app.checkin.flush-interval:1s}") Duration flushInterval,
+                              @Value("${app.checkin.window:10m}") Duration defaultWindow,
+                              @Value("${app.checkin.max-window:2h}") Duration maxWindow) {
+        this.classRepository = classRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.attendanceSummaryRepository = attendanceSummaryRepository;
+        this.attendanceBitmapIndex = attendanceBitmapIndex;
+        this.attendanceArchive = attendanceArchive;
+        this.eventPublisher = eventPublisher;
+        this.journal = journal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.defaultWindow = defaultWindow;
+        this.maxWindow = maxWindow;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        for (CheckInOutcome outcome : CheckInOutcome.values()) {
+            outcomes.put(outcome, Counter.builder("checkin.requests")
+                    .description("Self check-in attempts by outcome")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("checkin.queue.size", queue, ArrayBlockingQueue::size)
+                .description("Accepted check-ins waiting for the next flush")
+                .register(meterRegistry);
+        Gauge.builder("checkin.retry.size", retryCount, AtomicInteger::get)
+                .description("Check-ins whose flush failed and will be retried")
+                .register(meterRegistry);
+        Gauge.builder("checkin.sessions", sessions, Map::size)
+                .description("Check-in sessions held in memory")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("checkin.flush")
+                .description("Time to write one drained batch of check-ins")
+                .register(meterRegistry);
+        this.flushRows = DistributionSummary.builder("checkin.flush.rows")
+                .description("Check-ins written per class and day in a flush")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("checkin.flush.failures")
+                .description("Class sessions whose check-ins could not be written")
+                .register(meterRegistry);
+
+        // Left over from a run that stopped before flushing; marking present again is harmless
+        try {
+            List<CheckIn> recovered = journal.readClosedSegments();
+            if (!recovered.isEmpty()) {
+                retrying.addAll(recovered);
+                retryCount.set(retrying.size());
+                log.info("Recovered {} unflushed check-ins from the journal", recovered.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the check-in journal", e);
+        }
+
+        // Not a daemon: the final flush on shutdown should not be cut short
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> new Thread(task, "checkin-flush"));
+        flusher.scheduleWithFixedDelay(this::flushSafely, 0, flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Check-in flusher did not stop in time; unflushed check-ins stay in the journal");
+            return;
+        }
+        flushSafely();
+    }
+
+    @Override
+    public CheckInSession openSession(Integer classId, int minutes) {
+        if (!classRepository.existsById(classId)) {
+            throw new EntityNotFoundException("Class not found with id: " + classId);
+        }
+        if (attendanceArchive.isArchived(classId)) {
+            throw new IllegalStateException("Attendance of class " + classId + " is archived");
+        }
+        Duration window = minutes > 0 ? Duration.ofMinutes(minutes) : defaultWindow;
+        if (window.compareTo(maxWindow) > 0) {
+            window = maxWindow;
+        }
+        Set<Integer> roster = Set.copyOf(classRepository.findEnrolledStudentIds(classId));
+
+        while (true) {
+            Session session = new Session(newCode(), classId, LocalDate.now(), roster, Instant.now().plus(window));
+            if (sessions.putIfAbsent(session.code, session) == null) {
+                return session.view();
+            }
+        }
+    }
+
+    @Override
+    public Optional<CheckInSession> findSession(String code) {
+        return Optional.ofNullable(sessions.get(normalize(code))).map(Session::view);
+    }
+
+    @Override
+    public Optional<CheckInSession> closeSession(String code) {
+        Session session = sessions.get(normalize(code));
+        if (session == null) {
+            return Optional.empty();
+        }
+        session.open = false;
+        requestFlush();
+        return Optional.of(session.view());
+    }
+
+    @Override
+    public CheckInOutcome checkIn(String code, Integer studentId) {
+        CheckInOutcome outcome = accept(code, studentId);
+        outcomes.get(outcome).increment();
+        return outcome;
+    }
+
+    private CheckInOutcome accept(String code, Integer studentId) {
+        Session session = sessions.get(normalize(code));
+        if (session == null) {
+            return CheckInOutcome.UNKNOWN_CODE;
+        }
+        if (!session.isOpen()) {
+            return CheckInOutcome.EXPIRED;
+        }
+        if (!session.roster.contains(studentId)) {
+            return CheckInOutcome.NOT_ENROLLED;
+        }
+        if (!session.checkedIn.add(studentId)) {
+            return CheckInOutcome.ALREADY_CHECKED_IN;
+        }
+
+        CheckIn checkIn = new CheckIn(session.classId, session.date, studentId);
+        long position;
+        synchronized (acceptLock) {
+            if (queue.size() + retryCount.get() >= queueCapacity) {
+                session.checkedIn.remove(studentId);
+                return CheckInOutcome.BUSY;
+            }
+            try {
+                position = journal.append(checkIn);
+            } catch (IOException e) {
+                session.checkedIn.remove(studentId);
+                throw new UncheckedIOException("Could not journal the check-in", e);
+            }
+            queue.add(checkIn);
+        }
+        try {
+            journal.awaitDurable(position);
+        } catch (IOException e) {
+            // Queued but possibly not on disk; a retry from the student is answered as already checked in
+            throw new UncheckedIOException("Could not sync the check-in journal", e);
+        }
+
+        if (queue.size() >= batchSize) {
+            requestFlush();
+        }
+        return CheckInOutcome.ACCEPTED;
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushSafely);
+            } catch (RejectedExecutionException e) {
+                // Shutting down, which flushes anyway
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Check-in flush failed", e);
+        }
+        sessions.values().removeIf(session -> session.expiresAt.plus(maxWindow).isBefore(Instant.now()));
+    }
+
+    private void flush() {
+        flushRequested.set(false);
+        if (retrying.isEmpty() && queue.isEmpty()) {
+            return;
+        }
+        List<CheckIn> batch = new ArrayList<>(retrying);
+        long segment;
+        synchronized (acceptLock) {
+            try {
+                segment = journal.rotate();
+            } catch (IOException e) {
+                // Leave the queue alone; it fills up and turns check-ins away until the journal recovers
+                log.error("Could not rotate the check-in journal", e);
+                return;
+            }
+            queue.drainTo(batch);
+        }
+        retrying.clear();
+
+        Map<Integer, Map<LocalDate, List<Integer>>> groups = new LinkedHashMap<>();
+        for (CheckIn checkIn : batch) {
+            groups.computeIfAbsent(checkIn.classId(), id -> new LinkedHashMap<>())
+                    .computeIfAbsent(checkIn.date(), day -> new ArrayList<>())
+                    .add(checkIn.studentId());
+        }
+        flushTimer.record(() -> groups.forEach((classId, days) -> days.forEach((date, studentIds) -> {
+            try {
+                write(classId, date, studentIds);
+                flushRows.record(studentIds.size());
+            } catch (DataIntegrityViolationException e) {
+                // The class or a student was deleted since; retrying cannot help
+                flushFailures.increment();
+                log.warn("Dropping {} check-ins for class {} on {}: {}", studentIds.size(), classId, date, e.getMessage());
+            } catch (RuntimeException e) {
+                flushFailures.increment();
+                log.warn("Could not write {} check-ins for class {} on {}, will retry", studentIds.size(), classId, date, e);
+                studentIds.forEach(studentId -> retrying.add(new CheckIn(classId, date, studentId)));
+            }
+        })));
+        retryCount.set(retrying.size());
+
+        // Retried check-ins are still only on disk in the older segments
+        if (retrying.isEmpty()) {
+            try {
+                journal.deleteThrough(segment);
+            } catch (IOException e) {
+                log.warn("Could not delete flushed check-in journal segments", e);
+            }
+        }
+    }
+
+    private void write(Integer classId, LocalDate date, List<Integer> studentIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<AttendanceDelta> deltas = attendanceRepository.markPresent(classId, date, studentIds);
+            if (deltas.isEmpty()) {
+                return;
+            }
+            attendanceSummaryRepository.applyDeltas(deltas);
+            java.sql.Date day = java.sql.Date.valueOf(date);
+            List<Integer> changed = new ArrayList<>(deltas.size());
+            for (AttendanceDelta delta : deltas) {
+                attendanceBitmapIndex.record(classId, day, delta.studentId(), true);
+                changed.add(delta.studentId());
+            }
+            eventPublisher.publishEvent(ChangeEvent.attendanceMarked(classId, date, changed));
+        });
+    }
+
+    private String newCode() {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = CODE_ALPHABET[random.nextInt(CODE_ALPHABET.length)];
+        }
+        return new String(code);
+    }
+
+    private static String normalize(String code) {
+        return code == null ? "" : code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Session {
+        private final String code;
+        private final Integer classId;
+        private final LocalDate date;
+        private final Set<Integer> roster;
+        private final Set<Integer> checkedIn = ConcurrentHashMap.newKeySet();
+        private final Instant expiresAt;
+        private volatile boolean open = true;
+
+        private Session(String code, Integer classId, LocalDate date, Set<Integer> roster, Instant expiresAt) {
+            this.code = code;
+            this.classId = classId;
+            this.date = date;
+            this.roster = roster;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isOpen() {
+            return open && Instant.now().isBefore(expiresAt);
+        }
+
+        private CheckInSession view() {
+            return new CheckInSession(code, classId, date, expiresAt, isOpen(), roster.size(), checkedIn.size());
+        }
+    }
+}
@@ -1,106 +1,258 @@
 package edu.icet.service.impl;
 
+import edu.icet.config.CatalogCache;
+import edu.icet.config.EnrolmentLocks;
+import edu.icet.dto.ChangeEvent;
 import edu.icet.dto.Class;
 import edu.icet.dto.ClassRequest;
+import edu.icet.dto.RequestDecisionBatch;
+import edu.icet.dto.RequestDecisionBatchResult;
+import edu.icet.dto.RequestStatus;
 import edu.icet.dto.Student;
+import edu.icet.dto.response.ClassRequestResponse;
 import edu.icet.repository.ClassRepository;
 import edu.icet.repository.ClassRequestRepository;
+import edu.icet.repository.ClassRequestRepositoryCustom.LockedRequest;
 import edu.icet.repository.StudentRepository;
 import edu.icet.service.ClassRequestService;
 import edu.icet.service.ClassService;
 import jakarta.persistence.EntityNotFoundException;
-import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @Service
-@RequiredArgsConstructor
 public class ClassRequestServiceImpl implements ClassRequestService {
 
+    static final int MAX_BATCH_SIZE = 5000;
+
     private final ClassRequestRepository classRequestRepository;
     private final StudentRepository studentRepository;
     private final ClassRepository classRepository;
     private final ClassService classService;
+    private final CatalogCache catalogCache;
+    private final EnrolmentLocks enrolmentLocks;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate seatTransaction;
+
+    public ClassRequestServiceImpl(ClassRequestRepository classRequestRepository,
+                                   StudentRepository studentRepository,
+                                   ClassRepository classRepository,
+                                   ClassService classService,
+                                   CatalogCache catalogCache,
+                                   EnrolmentLocks enrolmentLocks,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager) {
+        this.classRequestRepository = classRequestRepository;
+        this.studentRepository = studentRepository;
+        this.classRepository = classRepository;
+        this.classService = classService;
+        this.catalogCache = catalogCache;
+        this.enrolmentLocks = enrolmentLocks;
+        this.eventPublisher = eventPublisher;
+        this.seatTransaction = new TransactionTemplate(transactionManager);
+    }
 
     @Override
-    public List<ClassRequest> findAllRequests() {
-        return classRequestRepository.findAll();
+    public List<ClassRequestResponse> findAllRequests() {
+        return classRequestRepository.findAllResponses();
     }
 
     @Override
-    public ClassRequest findById(Integer id) {
-        return classRequestRepository.findById(id)
+    public ClassRequestResponse findById(Integer id) {
+        return classRequestRepository.findResponseById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Class request not found with id: " + id));
     }
 
     @Override
     public ClassRequest createRequest(Integer studentId, Integer classId) {
+        // Cheap reads first, so duplicates and a rush on a full class are turned away without queueing for the lock
+        if (hasExistingRequest(studentId, classId)) {
+            throw new IllegalStateException("A pending request for this class already exists");
+        }
+        if (classRepository.findFullById(classId)
+                .orElseThrow(() -> new EntityNotFoundException("Class not found with id: " + classId))) {
+            throw new IllegalStateException("Class is full");
+        }
+
+        // The transaction starts once the stripe is held, so waiters don't sit on pooled connections
+        return enrolmentLocks.withClassLock(classId, () -> seatTransaction.execute(status -> insertRequest(studentId, classId)));
+    }
+
+    private ClassRequest insertRequest(Integer studentId, Integer classId) {
+        // First statement of the transaction, so the reads below see everything committed before the row lock was granted
+        if (!classRepository.claimSeat(classId)) {
+            throw new IllegalStateException("Class is full");
+        }
+        if (classRepository.isEnrolled(classId, studentId)) {
+            throw new IllegalStateException("Student is already enrolled in this class");
+        }
+
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new EntityNotFoundException("Student not found with id: " + studentId));
-
         Class classObj = classRepository.findById(classId)
                 .orElseThrow(() -> new EntityNotFoundException("Class not found with id: " + classId));
 
-        // Check if there's already a pending request
-        if (hasExistingRequest(studentId, classId)) {
-            throw new IllegalStateException("A request for this class already exists");
-        }
-
         ClassRequest request = new ClassRequest();
         request.setStudent(student);
         request.setRequestedClass(classObj);
         request.setRequestDate(new Date());
-        request.setStatus("PENDING");
+        request.setStatus(RequestStatus.PENDING);
 
-        return classRequestRepository.save(request);
+        ClassRequest saved;
+        try {
+            saved = classRequestRepository.saveAndFlush(request);
+        } catch (DataIntegrityViolationException e) {
+            // uk_class_request_pending: a request for the pair committed after the check above; the seat is rolled back
+            throw new IllegalStateException("A pending request for this class already exists");
+        }
+        catalogCache.evictSeats(classId);
+        eventPublisher.publishEvent(ChangeEvent.requestCreated(saved.getId(), classId, studentId));
+        return saved;
     }
 
     @Override
+    @Transactional
     public ClassRequest approveRequest(Integer requestId, String notes) {
-        ClassRequest request = findById(requestId);
-        request.setStatus("APPROVED");
+        ClassRequest request = requirePendingRequest(requestId);
+        request.setStatus(RequestStatus.APPROVED);
         request.setResponseDate(new Date());
         request.setResponseNotes(notes);
 
-        // Add student to class
+        // Add student to class; the request still holds its seat in the database until the flush, so none is taken twice
         classService.addStudentToClass(request.getRequestedClass().getId(), request.getStudent().getId());
 
-        return classRequestRepository.save(request);
+        // Flushed so the returned version is the one just written
+        ClassRequest saved = classRequestRepository.saveAndFlush(request);
+        publishDecided(saved);
+        return saved;
     }
 
     @Override
+    @Transactional
     public ClassRequest rejectRequest(Integer requestId, String notes) {
-        ClassRequest request = findById(requestId);
-        request.setStatus("REJECTED");
+        ClassRequest request = requirePendingRequest(requestId);
+        request.setStatus(RequestStatus.REJECTED);
         request.setResponseDate(new Date());
         request.setResponseNotes(notes);
 
-        return classRequestRepository.save(request);
+        Integer classId = request.getRequestedClass().getId();
+        classRepository.lockClasses(List.of(classId));
+        classRepository.releasePendingSeats(Map.of(classId, List.of(request.getStudent().getId())));
+        catalogCache.evictSeats(classId);
+
+        ClassRequest saved = classRequestRepository.saveAndFlush(request);
+        publishDecided(saved);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public RequestDecisionBatchResult decideRequests(RequestDecisionBatch batch) {
+        if (batch.requestIds() == null) {
+            throw new IllegalArgumentException("requestIds are required");
+        }
+        if (batch.requestIds().size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " requests per batch");
+        }
+        RequestDecisionBatch.Action action = batch.action() != null ? batch.action() : RequestDecisionBatch.Action.APPROVE;
+
+        // Classes first, then requests, the order the request and enrolment paths take them in
+        classRepository.lockClasses(classRequestRepository.findClassIdsByIdIn(batch.requestIds()));
+
+        // Locked until commit, so a concurrent single or batch decision on the same request waits and then sees it decided
+        Map<Integer, LockedRequest> found = new HashMap<>();
+        for (LockedRequest request : classRequestRepository.lockForDecision(batch.requestIds())) {
+            found.put(request.id(), request);
+        }
+
+        List<Integer> decided = new ArrayList<>();
+        List<Integer> notPending = new ArrayList<>();
+        List<Integer> unknown = new ArrayList<>();
+        Map<Integer, List<Integer>> studentsByClass = new TreeMap<>();
+        Map<Integer, List<Integer>> requestsByClass = new HashMap<>();
+        for (Integer id : new TreeSet<>(batch.requestIds())) {
+            LockedRequest request = found.get(id);
+            if (request == null) {
+                unknown.add(id);
+            } else if (request.status() != RequestStatus.PENDING) {
+                notPending.add(id);
+            } else {
+                decided.add(id);
+                studentsByClass.computeIfAbsent(request.classId(), classId -> new ArrayList<>()).add(request.studentId());
+                requestsByClass.computeIfAbsent(request.classId(), classId -> new ArrayList<>()).add(id);
+            }
+        }
+
+        if (!decided.isEmpty()) {
+            RequestStatus status = action == RequestDecisionBatch.Action.APPROVE ? RequestStatus.APPROVED : RequestStatus.REJECTED;
+            classRequestRepository.decide(decided, status, new Date(), batch.notes());
+            if (status == RequestStatus.APPROVED) {
+                classRepository.enrolAll(studentsByClass);
+                studentsByClass.forEach(catalogCache::evictEnrolment);
+            } else {
+                classRepository.releasePendingSeats(studentsByClass);
+                studentsByClass.keySet().forEach(catalogCache::evictSeats);
+            }
+            studentsByClass.forEach((classId, studentIds) -> {
+                eventPublisher.publishEvent(ChangeEvent.requestsDecided(status, classId, studentIds, requestsByClass.get(classId)));
+                if (status == RequestStatus.APPROVED) {
+                    eventPublisher.publishEvent(ChangeEvent.enrolmentChanged(classId, studentIds));
+                }
+            });
+        }
+        return new RequestDecisionBatchResult(action, decided, notPending, unknown);
     }
 
     @Override
-    public List<ClassRequest> findRequestsByStudentId(Integer studentId) {
-        return classRequestRepository.findByStudentId(studentId);
+    public List<ClassRequestResponse> findRequestsByStudentId(Integer studentId) {
+        return classRequestRepository.findResponsesByStudentId(studentId);
     }
 
     @Override
-    public List<ClassRequest> findRequestsByClassId(Integer classId) {
-        return classRequestRepository.findByRequestedClassId(classId);
+    public List<ClassRequestResponse> findRequestsByClassId(Integer classId) {
+        return classRequestRepository.findResponsesByClassId(classId);
     }
 
     @Override
-    public List<ClassRequest> findPendingRequests() {
-        return classRequestRepository.findByStatus("PENDING");
+    public List<ClassRequestResponse> findPendingRequests() {
+        return classRequestRepository.findResponsesByStatus(RequestStatus.PENDING);
+    }
+
+    @Override
+    public String findPendingRequestsVersion() {
+        return classRequestRepository.findStampByStatus(RequestStatus.PENDING).token();
     }
 
     @Override
     public boolean hasExistingRequest(Integer studentId, Integer classId) {
-        List<ClassRequest> requests = classRequestRepository
-                .findByStudentIdAndRequestedClassId(studentId, classId);
+        return classRequestRepository.existsByStudentIdAndRequestedClassIdAndStatus(studentId, classId, RequestStatus.PENDING);
+    }
 
-        return requests.stream()
-                .anyMatch(r -> r.getStatus().equals("PENDING"));
+    private void publishDecided(ClassRequest request) {
+        eventPublisher.publishEvent(ChangeEvent.requestsDecided(request.getStatus(), request.getRequestedClass().getId(),
+                List.of(request.getStudent().getId()), List.of(request.getId())));
+    }
+
+    // Loads the student and class with the request, since the response shows their names. A decision racing
+    // this one fails on the request version when flushed
+    private ClassRequest requirePendingRequest(Integer id) {
+        ClassRequest request = classRequestRepository.findWithStudentAndClassById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Class request not found with id: " + id));
+        if (request.getStatus() != RequestStatus.PENDING) {
+            throw new IllegalStateException("Class request " + id + " is already " + request.getStatus());
+        }
+        return request;
     }
 }
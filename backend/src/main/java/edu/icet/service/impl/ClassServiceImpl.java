@@ -1,33 +1,62 @@
 package edu.icet.service.impl;
 
+import edu.icet.config.CatalogCache;
+import edu.icet.dto.ChangeEvent;
 import edu.icet.dto.Class;
-import edu.icet.dto.Student;
+import edu.icet.dto.EnrolmentBatch;
+import edu.icet.dto.EnrolmentBatchResult;
+import edu.icet.dto.projection.ClassSummary;
+import edu.icet.dto.response.ClassResponse;
+import edu.icet.dto.response.StudentResponse;
 import edu.icet.repository.ClassRepository;
 import edu.icet.repository.StudentRepository;
 import edu.icet.service.ClassService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
 public class ClassServiceImpl implements ClassService {
 
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_BATCH_SIZE = 20000;
+
     private final ClassRepository classRepository;
     private final StudentRepository studentRepository;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public List<ClassResponse> findAllClasses() {
+        return classRepository.findAllResponses();
+    }
+
+    @Override
+    public String findAllClassesVersion() {
+        return classRepository.findStamp().token();
+    }
 
     @Override
-    public List<Class> findAllClasses() {
-        return classRepository.findAll();
+    public ClassResponse findById(Integer id) {
+        return classRepository.findResponseById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Class not found with id: " + id));
     }
 
     @Override
-    public Class findById(Integer id) {
-        return classRepository.findById(id)
+    public String findClassVersion(Integer id) {
+        return classRepository.findVersionById(id)
+                .map(String::valueOf)
                 .orElseThrow(() -> new EntityNotFoundException("Class not found with id: " + id));
     }
 
@@ -37,53 +66,120 @@ public class ClassServiceImpl implements ClassService {
     }
 
     @Override
+    @Transactional
     public Class updateClass(Class classObj) {
-        return classRepository.save(classObj);
+        Class existing = classRepository.findById(classObj.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Class not found with id: " + classObj.getId()));
+        // Clients that don't send a version overwrite whatever is current, as before versioning
+        if (classObj.getVersion() != null && !classObj.getVersion().equals(existing.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Class.class, classObj.getId());
+        }
+        // Only the editable details; the roster and seat count belong to the enrolment and request paths
+        existing.setName(classObj.getName());
+        existing.setDescription(classObj.getDescription());
+        existing.setSchedule(classObj.getSchedule());
+        existing.setStartDate(classObj.getStartDate());
+        existing.setEndDate(classObj.getEndDate());
+        existing.setMaxStudents(classObj.getMaxStudents());
+        Class updated = classRepository.saveAndFlush(existing);
+        catalogCache.evictClass(updated.getId());
+        return updated;
     }
 
     @Override
     public void deleteClass(Integer id) {
         classRepository.deleteById(id);
+        catalogCache.evictDeletedClass(id);
     }
 
     @Override
-    public List<Class> findClassesByStudentId(Integer studentId) {
-        return classRepository.findByStudentsId(studentId);
+    public List<ClassResponse> findClassesByStudentId(Integer studentId) {
+        return classRepository.findResponsesByStudentId(studentId);
     }
 
     @Override
-    public List<Class> findClassesNotEnrolledByStudent(Integer studentId) {
-        List<Class> allClasses = classRepository.findAll();
-        List<Class> enrolledClasses = classRepository.findByStudentsId(studentId);
-
-        return allClasses.stream()
-                .filter(c -> !enrolledClasses.contains(c))
-                .collect(Collectors.toList());
+    public Slice<ClassSummary> findClassesNotEnrolledByStudent(Integer studentId, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        return classRepository.findSummariesNotEnrolledBy(studentId, PageRequest.of(page, size));
     }
 
     @Override
-    public Class addStudentToClass(Integer classId, Integer studentId) {
-        Class classObj = findById(classId);
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new EntityNotFoundException("Student not found with id: " + studentId));
+    @Transactional
+    public void addStudentToClass(Integer classId, Integer studentId) {
+        requireClass(classId);
+        requireStudent(studentId);
+
+        if (!classRepository.enrol(classId, List.of(studentId)).isEmpty()) {
+            catalogCache.evictEnrolment(classId, List.of(studentId));
+            eventPublisher.publishEvent(ChangeEvent.enrolmentChanged(classId, List.of(studentId)));
+        }
+    }
 
-        classObj.getStudents().add(student);
-        return classRepository.save(classObj);
+    @Override
+    @Transactional
+    public void removeStudentFromClass(Integer classId, Integer studentId) {
+        requireClass(classId);
+        requireStudent(studentId);
+
+        if (!classRepository.unenrol(classId, List.of(studentId)).isEmpty()) {
+            catalogCache.evictEnrolment(classId, List.of(studentId));
+            eventPublisher.publishEvent(ChangeEvent.enrolmentChanged(classId, List.of(studentId)));
+        }
     }
 
     @Override
-    public Class removeStudentFromClass(Integer classId, Integer studentId) {
-        Class classObj = findById(classId);
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new EntityNotFoundException("Student not found with id: " + studentId));
+    @Transactional
+    public EnrolmentBatchResult updateEnrolments(Integer classId, EnrolmentBatch batch) {
+        if (batch.action() == null || batch.studentIds() == null) {
+            throw new IllegalArgumentException("action and studentIds are required");
+        }
+        if (batch.studentIds().size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " students per batch");
+        }
+        requireClass(classId);
+
+        Set<Integer> requested = new TreeSet<>(batch.studentIds());
+        Set<Integer> known = new HashSet<>(studentRepository.findExistingIds(requested));
+        List<Integer> unknown = requested.stream().filter(id -> !known.contains(id)).toList();
+        List<Integer> valid = requested.stream().filter(known::contains).toList();
+
+        List<Integer> changed = batch.action() == EnrolmentBatch.Action.ENROL
+                ? classRepository.enrol(classId, valid)
+                : classRepository.unenrol(classId, valid);
+        Set<Integer> changedSet = new HashSet<>(changed);
+        List<Integer> unchanged = valid.stream().filter(id -> !changedSet.contains(id)).toList();
+
+        if (!changed.isEmpty()) {
+            catalogCache.evictEnrolment(classId, changed);
+            eventPublisher.publishEvent(ChangeEvent.enrolmentChanged(classId, changed));
+        }
+        return new EnrolmentBatchResult(classId, batch.action(), changed, unchanged, unknown);
+    }
 
-        classObj.getStudents().remove(student);
-        return classRepository.save(classObj);
+    @Override
+    public List<StudentResponse> getEnrolledStudents(Integer classId) {
+        return studentRepository.findResponsesByClassId(classId);
     }
 
     @Override
-    public Set<Student> getEnrolledStudents(Integer classId) {
-        Class classObj = findById(classId);
-        return classObj.getStudents();
+    public String findRosterVersion(Integer classId) {
+        // The class version moves on every enrolment change; the stamp catches edits to the students themselves
+        Integer version = classRepository.findVersionById(classId)
+                .orElseThrow(() -> new EntityNotFoundException("Class not found with id: " + classId));
+        return version + "-" + classRepository.findEnrolledStamp(classId).token();
+    }
+
+    private void requireClass(Integer classId) {
+        if (!classRepository.existsById(classId)) {
+            throw new EntityNotFoundException("Class not found with id: " + classId);
+        }
+    }
+
+    private void requireStudent(Integer studentId) {
+        if (!studentRepository.existsById(studentId)) {
+            throw new EntityNotFoundException("Student not found with id: " + studentId);
+        }
     }
 }
@@ -0,0 +1,154 @@
+package edu.icet.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.icet.dto.ExportFormat;
+import edu.icet.dto.RequestStatus;
+import edu.icet.dto.export.AttendanceExportRow;
+import edu.icet.dto.export.ClassRequestExportRow;
+import edu.icet.dto.export.EnrolmentExportRow;
+import edu.icet.repository.AttendanceArchive;
+import edu.icet.repository.AttendanceRepository;
+import edu.icet.repository.ClassRepository;
+import edu.icet.repository.ClassRequestRepository;
+import edu.icet.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams export rows from the database straight to the output, so memory use does not
+ * grow with the row count. Runs in a read-only transaction, which keeps the result set open.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] ATTENDANCE_HEADER = {"id", "studentId", "classId", "date", "present"};
+    private static final String[] ENROLMENT_HEADER = {"classId", "studentId"};
+    private static final String[] REQUEST_HEADER = {"id", "studentId", "classId", "requestDate", "status", "responseDate", "responseNotes"};
+
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceArchive attendanceArchive;
+    private final ClassRepository classRepository;
+    private final ClassRequestRepository classRequestRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAttendance(ExportFormat format, Integer classId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        // Archived classes first, straight from their mapped files, then the rows streamed from the table
+        Stream<AttendanceExportRow> archived = attendanceArchive.stream(classId, from, to)
+                .map(row -> new AttendanceExportRow(row.id(), row.studentId(), row.classId(), row.date(), row.present()));
+        try (Stream<AttendanceExportRow> rows = Stream.concat(archived,
+                attendanceRepository.streamForExport(classId, toDate(from), toDate(to)))) {
+            return write(format, rows, ATTENDANCE_HEADER, AttendanceExportRow::columns, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportEnrolments(ExportFormat format, Integer classId, OutputStream out) throws IOException {
+        try (Stream<EnrolmentExportRow> rows = classRepository.streamEnrolmentsForExport(classId)) {
+            return write(format, rows, ENROLMENT_HEADER, EnrolmentExportRow::columns, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportClassRequests(ExportFormat format, Integer classId, RequestStatus status, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        // Request dates carry a time, so the upper bound is the start of the day after 'to'
+        try (Stream<ClassRequestExportRow> rows = classRequestRepository.streamForExport(classId, status,
+                toDate(from), toDate(to != null ? to.plusDays(1) : null))) {
+            return write(format, rows, REQUEST_HEADER, ClassRequestExportRow::columns, out);
+        }
+    }
+
+    private <T> long write(ExportFormat format, Stream<T> rows, String[] header, Function<T, Object[]> columns, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long count;
+        try {
+            count = switch (format) {
+                case CSV -> writeCsv(rows, header, columns, out);
+                case NDJSON -> writeNdjson(rows, out);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.debug("Exported {} rows as {} in {} ms", count, format, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private <T> long writeCsv(Stream<T> rows, String[] header, Function<T, Object[]> columns, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writeCsvLine(writer, header);
+        long[] count = {0};
+        rows.forEach(row -> {
+            try {
+                writeCsvLine(writer, columns.apply(row));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        writer.flush();
+        return count[0];
+    }
+
+    private <T> long writeNdjson(Stream<T> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are separated below; the default separator would start every line after the first with a space
+        generator.setRootValueSeparator(null);
+        long[] count = {0};
+        rows.forEach(row -> {
+            try {
+                generator.writeObject(row);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        generator.close();
+        return count[0];
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static Date toDate(LocalDate date) {
+        return date != null ? Date.valueOf(date) : null;
+    }
+}
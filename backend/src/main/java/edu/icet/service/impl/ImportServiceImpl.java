@@ -0,0 +1,368 @@
+package edu.icet.service.impl;
+
+import edu.icet.config.CatalogCache;
+import edu.icet.dto.Attendance;
+import edu.icet.dto.AttendanceDelta;
+import edu.icet.dto.Class;
+import edu.icet.dto.ImportError;
+import edu.icet.dto.ImportReport;
+import edu.icet.dto.Student;
+import edu.icet.dto.User;
+import edu.icet.repository.AttendanceArchive;
+import edu.icet.repository.AttendanceBitmapIndex;
+import edu.icet.repository.AttendanceSummaryRepository;
+import edu.icet.repository.BulkImportRepository;
+import edu.icet.repository.BulkImportRepository.AttendanceKey;
+import edu.icet.repository.BulkImportRepository.Recorded;
+import edu.icet.repository.IdBlockAllocator;
+import edu.icet.service.ImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streams CSV files into the database: rows are parsed and validated one at a time, foreign keys
+ * are resolved against id maps loaded once per import, and valid rows are written in JDBC batches,
+ * committing every {@code app.import.commit-interval} rows. Invalid rows are reported and skipped.
+ * <p>
+ * Files have a header row; dates are yyyy-MM-dd.
+ * <ul>
+ *     <li>students: fName, lName, address, dob, nic, contact, and optionally username and password
+ *     for a login account</li>
+ *     <li>classes: name, description, schedule, startDate, endDate</li>
+ *     <li>attendance: studentId or studentNic, classId or className, date, present, and optionally notes.
+ *     A row for a session the student is already recorded in updates that record, so importing a file twice
+ *     changes nothing; rows for archived classes are rejected</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ImportServiceImpl implements ImportService {
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreHeaderCase(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+
+    private final BulkImportRepository bulkImportRepository;
+    private final IdBlockAllocator idBlockAllocator;
+    private final AttendanceSummaryRepository attendanceSummaryRepository;
+    private final AttendanceBitmapIndex attendanceBitmapIndex;
+    private final AttendanceArchive attendanceArchive;
+    private final CatalogCache catalogCache;
+    private final TransactionTemplate commitTransaction;
+    private final int commitInterval;
+    private final int maxErrors;
+
+    public ImportServiceImpl(BulkImportRepository bulkImportRepository,
+                             IdBlockAllocator idBlockAllocator,
+                             AttendanceSummaryRepository attendanceSummaryRepository,
+                             AttendanceBitmapIndex attendanceBitmapIndex,
+                             AttendanceArchive attendanceArchive,
+                             CatalogCache catalogCache,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.import.commit-interval:5000}") int commitInterval,
+                             @Value("${app.import.max-errors:1000}") int maxErrors) {
+        this.bulkImportRepository = bulkImportRepository;
+        this.idBlockAllocator = idBlockAllocator;
+        this.attendanceSummaryRepository = attendanceSummaryRepository;
+        this.attendanceBitmapIndex = attendanceBitmapIndex;
+        this.attendanceArchive = attendanceArchive;
+        this.catalogCache = catalogCache;
+        this.commitTransaction = new TransactionTemplate(transactionManager);
+        this.commitInterval = commitInterval;
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public ImportReport importStudents(Reader csv) throws IOException {
+        Map<String, Integer> knownNics = bulkImportRepository.loadStudentIdsByNic();
+        Set<String> seenNics = new HashSet<>();
+        Set<String> usernames = bulkImportRepository.loadUsernames();
+
+        ImportReport report = run("students", csv, record -> {
+            Student student = new Student();
+            student.setFName(required(record, "fName"));
+            student.setLName(required(record, "lName"));
+            student.setAddress(optional(record, "address"));
+            student.setDob(date(record, "dob", false));
+            student.setContact(optional(record, "contact"));
+
+            String nic = optional(record, "nic");
+            if (nic != null) {
+                if (knownNics.containsKey(nic) || !seenNics.add(nic)) {
+                    throw new IllegalArgumentException("A student with NIC " + nic + " already exists");
+                }
+            }
+            student.setNic(nic);
+
+            User user = null;
+            String username = optional(record, "username");
+            if (username != null) {
+                if (!usernames.add(username)) {
+                    throw new IllegalArgumentException("Username " + username + " is already taken");
+                }
+                user = new User(null, username, required(record, "password"), "STUDENT", student);
+            }
+            return new StudentImport(student, user);
+        }, rows -> {
+            int firstId = idBlockAllocator.reserve("student", rows.size());
+            List<Student> students = new ArrayList<>(rows.size());
+            List<User> users = new ArrayList<>();
+            for (StudentImport row : rows) {
+                row.student().setId(firstId++);
+                students.add(row.student());
+                if (row.user() != null) {
+                    users.add(row.user());
+                }
+            }
+            bulkImportRepository.insertStudents(students);
+
+            if (!users.isEmpty()) {
+                int firstUserId = idBlockAllocator.reserve("user", users.size());
+                for (User user : users) {
+                    user.setId(firstUserId++);
+                }
+                bulkImportRepository.insertUsers(users);
+            }
+        });
+
+        catalogCache.evictAll();
+        return report;
+    }
+
+    @Override
+    public ImportReport importClasses(Reader csv) throws IOException {
+        ImportReport report = run("classes", csv, record -> {
+            Class classObj = new Class();
+            classObj.setName(required(record, "name"));
+            classObj.setDescription(optional(record, "description"));
+            classObj.setSchedule(required(record, "schedule"));
+            classObj.setStartDate(date(record, "startDate", false));
+            classObj.setEndDate(date(record, "endDate", false));
+            if (classObj.getStartDate() != null && classObj.getEndDate() != null
+                    && classObj.getEndDate().before(classObj.getStartDate())) {
+                throw new IllegalArgumentException("endDate is before startDate");
+            }
+            return classObj;
+        }, rows -> {
+            int firstId = idBlockAllocator.reserve("class", rows.size());
+            for (Class classObj : rows) {
+                classObj.setId(firstId++);
+            }
+            bulkImportRepository.insertClasses(rows);
+        });
+
+        catalogCache.evictAll();
+        return report;
+    }
+
+    @Override
+    public ImportReport importAttendance(Reader csv) throws IOException {
+        BitSet studentIds = bulkImportRepository.loadStudentIds();
+        BitSet classIds = bulkImportRepository.loadClassIds();
+        // Only loaded if a row refers to students or classes by natural key
+        SingletonSupplier<Map<String, Integer>> nics = SingletonSupplier.of(bulkImportRepository::loadStudentIdsByNic);
+        SingletonSupplier<Map<String, Integer>> classNames = SingletonSupplier.of(bulkImportRepository::loadClassIdsByName);
+
+        ImportReport report = run("attendance", csv, record -> {
+            Integer studentId = integer(record, "studentId");
+            if (studentId == null) {
+                studentId = resolve(nics.obtain(), required(record, "studentNic"), "student with NIC");
+            } else if (studentId < 0 || !studentIds.get(studentId)) {
+                throw new IllegalArgumentException("No student with id " + studentId);
+            }
+
+            Integer classId = integer(record, "classId");
+            if (classId == null) {
+                classId = resolve(classNames.obtain(), required(record, "className"), "class named");
+            } else if (classId < 0 || !classIds.get(classId)) {
+                throw new IllegalArgumentException("No class with id " + classId);
+            }
+
+            if (attendanceArchive.isArchived(classId)) {
+                throw new IllegalArgumentException("Class " + classId + " is archived");
+            }
+
+            Student student = new Student();
+            student.setId(studentId);
+            Class classAttended = new Class();
+            classAttended.setId(classId);
+            return new Attendance(null, student, classAttended, date(record, "date", true),
+                    presence(required(record, "present")), optional(record, "notes"));
+        }, rows -> {
+            // A later row for the same student and session replaces an earlier one
+            Map<AttendanceKey, Attendance> byKey = new LinkedHashMap<>();
+            rows.forEach(attendance -> byKey.put(AttendanceKey.of(attendance), attendance));
+            Map<AttendanceKey, Recorded> recorded = bulkImportRepository.lockRecordedAttendance(byKey.keySet());
+
+            int added = (int) byKey.keySet().stream().filter(key -> !recorded.containsKey(key)).count();
+            int nextId = added > 0 ? idBlockAllocator.reserve("attendance", added) : 0;
+            List<AttendanceDelta> deltas = new ArrayList<>();
+            for (Map.Entry<AttendanceKey, Attendance> entry : byKey.entrySet()) {
+                Attendance attendance = entry.getValue();
+                Recorded existing = recorded.get(entry.getKey());
+                if (existing == null) {
+                    attendance.setId(nextId++);
+                    deltas.add(AttendanceDelta.added(attendance));
+                    continue;
+                }
+                attendance.setId(existing.id());
+                if (existing.present() != attendance.getPresent()) {
+                    deltas.add(new AttendanceDelta(attendance.getStudent().getId(), attendance.getClassAttended().getId(),
+                            attendance.getPresent() ? 1 : -1, 0));
+                }
+            }
+            List<Attendance> written = new ArrayList<>(byKey.values());
+            bulkImportRepository.upsertAttendance(written);
+            attendanceSummaryRepository.applyDeltas(deltas);
+            attendanceBitmapIndex.record(written);
+        });
+        return report;
+    }
+
+    private <T> ImportReport run(String entity, Reader csv, RowParser<T> parser, Consumer<List<T>> writer) throws IOException {
+        long start = System.currentTimeMillis();
+        List<T> pending = new ArrayList<>(commitInterval);
+        List<ImportError> errors = new ArrayList<>();
+        long rowsRead = 0;
+        long imported = 0;
+        long rejected = 0;
+        boolean aborted = false;
+
+        try (CSVParser csvParser = CSV_FORMAT.parse(csv)) {
+            for (CSVRecord record : csvParser) {
+                rowsRead++;
+                try {
+                    if (!record.isConsistent()) {
+                        throw new IllegalArgumentException("Expected " + csvParser.getHeaderNames().size()
+                                + " columns but found " + record.size());
+                    }
+                    pending.add(parser.parse(record));
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    if (errors.size() < maxErrors) {
+                        errors.add(new ImportError(record.getRecordNumber(), e.getMessage()));
+                    }
+                    continue;
+                }
+
+                if (pending.size() >= commitInterval) {
+                    imported += commit(pending, writer);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // Malformed CSV (e.g. an unterminated quote): keep what was committed and report where it stopped
+            aborted = true;
+            errors.add(new ImportError(rowsRead + 1, "Unreadable CSV, import stopped: " + e.getCause().getMessage()));
+        }
+        imported += commit(pending, writer);
+
+        long elapsed = System.currentTimeMillis() - start;
+        long rowsPerSecond = rowsRead * 1000 / Math.max(1, elapsed);
+        log.info("Imported {} of {} {} rows in {} ms ({} rows/s), {} rejected",
+                imported, rowsRead, entity, elapsed, rowsPerSecond, rejected);
+        return new ImportReport(entity, rowsRead, imported, rejected, errors, aborted, elapsed, rowsPerSecond);
+    }
+
+    private <T> int commit(List<T> pending, Consumer<List<T>> writer) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        commitTransaction.executeWithoutResult(status -> writer.accept(pending));
+        int committed = pending.size();
+        pending.clear();
+        return committed;
+    }
+
+    private static String optional(CSVRecord record, String column) {
+        if (!record.isMapped(column) || !record.isSet(column)) {
+            return null;
+        }
+        String value = record.get(column);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String required(CSVRecord record, String column) {
+        String value = optional(record, column);
+        if (value == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return value;
+    }
+
+    private static Integer integer(CSVRecord record, String column) {
+        String value = optional(record, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static Date date(CSVRecord record, String column, boolean isRequired) {
+        String value = isRequired ? required(record, column) : optional(record, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Date.valueOf(LocalDate.parse(value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + " is not a yyyy-MM-dd date: " + value);
+        }
+    }
+
+    private static boolean presence(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "y", "present", "p" -> true;
+            case "false", "0", "no", "n", "absent", "a" -> false;
+            default -> throw new IllegalArgumentException("present is not a yes/no value: " + value);
+        };
+    }
+
+    private static Integer resolve(Map<String, Integer> ids, String key, String description) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            throw new IllegalArgumentException("No " + description + " " + key);
+        }
+        if (id == BulkImportRepository.AMBIGUOUS) {
+            throw new IllegalArgumentException("More than one " + description + " " + key);
+        }
+        return id;
+    }
+
+    @FunctionalInterface
+    private interface RowParser<T> {
+        T parse(CSVRecord record);
+    }
+
+    private record StudentImport(Student student, User user) {
+    }
+}
@@ -0,0 +1,88 @@
+package edu.icet.service.impl;
+
+import edu.icet.service.PictureStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+public class LocalPictureStore implements PictureStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public LocalPictureStore(@Value("${app.pictures.dir:data/pictures}") String dir) {
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create picture store at " + root, e);
+        }
+        log.info("Picture store at {}", root);
+    }
+
+    @Override
+    public String put(byte[] content) throws IOException {
+        String hash = sha256(content);
+        Path target = pathFor(hash);
+        if (Files.exists(target)) {
+            return hash;
+        }
+
+        // Write to a temp file in the same directory and move it into place so readers never see a partial file
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            if (!Files.exists(target)) {
+                throw e;
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public Optional<Resource> get(String hash) {
+        if (!contains(hash)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileSystemResource(pathFor(hash)));
+    }
+
+    @Override
+    public boolean contains(String hash) {
+        return hash != null && HASH_PATTERN.matcher(hash).matches() && Files.isRegularFile(pathFor(hash));
+    }
+
+    // Shard by the first two hex characters to keep directories small
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,23 +1,53 @@
 package edu.icet.service.impl;
 
 import edu.icet.dto.Student;
+import edu.icet.dto.StudentPage;
+import edu.icet.dto.projection.StudentSummary;
+import edu.icet.dto.response.StudentResponse;
 import edu.icet.repository.StudentRepository;
+import edu.icet.service.PictureStore;
 import edu.icet.service.StudentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class StudentServiceImpl implements StudentService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
+    // Selectable fields of the paginated listing, in output order. Keys are the names StudentResponse serialises to
+    // and the frontend reads (fName, lName), not the entity's, whose Lombok getters Jackson turns into fname and lname
+    private static final Map<String, Function<StudentSummary, Object>> PAGE_FIELDS = new LinkedHashMap<>();
+
+    static {
+        PAGE_FIELDS.put("id", StudentSummary::getId);
+        PAGE_FIELDS.put("fName", StudentSummary::getFirstName);
+        PAGE_FIELDS.put("lName", StudentSummary::getLastName);
+        PAGE_FIELDS.put("address", StudentSummary::getAddress);
+        PAGE_FIELDS.put("dob", StudentSummary::getDob);
+        PAGE_FIELDS.put("nic", StudentSummary::getNic);
+        PAGE_FIELDS.put("contact", StudentSummary::getContact);
+        PAGE_FIELDS.put("profilePicHash", StudentSummary::getProfilePicHash);
+    }
+
     final StudentRepository repository;
+    final PictureStore pictureStore;
 
     @Override
-    public Student searchStudentById(Integer id) {
-        return repository.findById(id).orElse(null);
+    public StudentResponse searchStudentById(Integer id) {
+        return repository.findResponseById(id).orElse(null);
     }
 
     @Override
@@ -26,17 +56,73 @@ public class StudentServiceImpl implements StudentService {
     }
 
     @Override
-    public void updateStudent(Student student) throws IOException {
+    public void updateStudent(Student student, byte[] profilePic) throws IOException {
+        if (profilePic != null && profilePic.length > 0) {
+            student.setProfilePicHash(pictureStore.put(profilePic));
+        } else if (student.getId() != null) {
+            // An empty upload means "keep the current picture"
+            student.setProfilePicHash(repository.findProfilePicHashById(student.getId()).orElse(null));
+        }
+        // Without a version from the client the update overwrites the current row, as before versioning
+        if (student.getVersion() == null && student.getId() != null) {
+            repository.findVersionById(student.getId()).ifPresent(student::setVersion);
+        }
         repository.save(student);
     }
 
     @Override
-    public List<Student> findAllStudents() {
-        return repository.findAll();
+    public List<StudentResponse> findAllStudents() {
+        return repository.findAllResponses();
+    }
+
+    @Override
+    public StudentPage findStudentPage(Integer after, int limit, Set<String> fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        for (String field : fields) {
+            if (!PAGE_FIELDS.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field + "; fields are " + String.join(", ", PAGE_FIELDS.keySet()));
+            }
+        }
+
+        // Fetch one extra row to learn whether another page follows
+        List<StudentSummary> rows = repository.findSummariesAfter(after == null ? 0 : after, PageRequest.ofSize(limit + 1));
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(rows.size());
+        for (StudentSummary row : rows) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            PAGE_FIELDS.forEach((name, getter) -> {
+                if (fields.isEmpty() || fields.contains(name) || name.equals("id")) {
+                    item.put(name, getter.apply(row));
+                }
+            });
+            items.add(item);
+        }
+
+        Integer nextCursor = hasMore ? rows.get(rows.size() - 1).getId() : null;
+        return new StudentPage(items, nextCursor);
     }
 
     @Override
-    public void addStudent(Student student) throws IOException {
+    public void addStudent(Student student, byte[] profilePic) throws IOException {
+        if (profilePic != null && profilePic.length > 0) {
+            student.setProfilePicHash(pictureStore.put(profilePic));
+        }
         repository.save(student);
     }
+
+    @Override
+    public Optional<String> findProfilePicHash(Integer id) {
+        return repository.findProfilePicHashById(id);
+    }
+
+    @Override
+    public Optional<Resource> loadProfilePic(String hash) {
+        return pictureStore.get(hash);
+    }
 }
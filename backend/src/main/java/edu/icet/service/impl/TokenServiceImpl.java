@@ -0,0 +1,119 @@
+package edu.icet.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import edu.icet.dto.AuthPrincipal;
+import edu.icet.dto.User;
+import edu.icet.service.TokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Stateless access tokens in JWT form (HS256), carrying the user id, role and student id, so a
+ * request can be authorised from the token alone. Without {@code app.auth.token-secret} a random
+ * key is generated at startup and tokens do not survive a restart.
+ */
+@Slf4j
+@Service
+public class TokenServiceImpl implements TokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String HEADER = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock = Clock.systemUTC();
+
+    public TokenServiceImpl(ObjectMapper objectMapper,
+                            @Value("${app.auth.token-secret:}") String secret,
+                            @Value("${app.auth.token-ttl:8h}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+
+        byte[] keyBytes;
+        if (secret.isBlank()) {
+            log.warn("app.auth.token-secret is not set; using a random key, so tokens are invalidated on restart");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    @Override
+    public String issue(User user) {
+        Instant now = clock.instant();
+        ObjectNode claims = objectMapper.createObjectNode()
+                .put("sub", user.getUsername())
+                .put("uid", user.getId())
+                .put("role", user.getRole())
+                .put("iat", now.getEpochSecond())
+                .put("exp", now.plus(ttl).getEpochSecond());
+        if (user.getStudent() != null) {
+            claims.put("sid", user.getStudent().getId());
+        }
+
+        try {
+            String unsigned = HEADER + "." + encode(objectMapper.writeValueAsBytes(claims));
+            return unsigned + "." + encode(sign(unsigned));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write token claims", e);
+        }
+    }
+
+    @Override
+    public Optional<AuthPrincipal> verify(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3 || !parts[0].equals(HEADER)) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] expected = sign(parts[0] + "." + parts[1]);
+            if (!MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(parts[2]))) {
+                return Optional.empty();
+            }
+
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            Instant expiresAt = Instant.ofEpochSecond(claims.path("exp").asLong());
+            if (!clock.instant().isBefore(expiresAt)) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthPrincipal(claims.path("uid").asInt(), claims.path("sub").asText(),
+                    claims.path("role").asText(), claims.hasNonNull("sid") ? claims.get("sid").asInt() : null, expiresAt));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String content) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,28 +1,51 @@
 package edu.icet.service.impl;
 
 import edu.icet.dto.User;
+import edu.icet.dto.response.UserResponse;
 import edu.icet.repository.UserRepository;
 import edu.icet.service.UserService;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
 
     private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService passwordHashExecutor;
+    // Checked against when the username is unknown, so unknown and known users take the same time
+    private final String unknownUserHash;
+
+    public UserServiceImpl(UserRepository userRepository,
+                           PasswordEncoder passwordEncoder,
+                           @Qualifier("passwordHashExecutor") ExecutorService passwordHashExecutor) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashExecutor = passwordHashExecutor;
+        this.unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
 
     @Override
-    public List<User> findAllUsers() {
-        return userRepository.findAll();
+    public List<UserResponse> findAllUsers() {
+        return userRepository.findAll().stream().map(UserResponse::from).toList();
     }
 
     @Override
-    public User findById(Integer id) {
-        return userRepository.findById(id).orElse(null);
+    public UserResponse findById(Integer id) {
+        return userRepository.findWithStudentById(id).map(UserResponse::from).orElse(null);
     }
 
     @Override
@@ -36,13 +59,21 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public User createUser(User user) {
-        return userRepository.save(user);
+    public UserResponse createUser(User user) {
+        user.setPassword(hash(user.getPassword()));
+        return findById(userRepository.save(user).getId());
     }
 
     @Override
-    public User updateUser(User user) {
-        return userRepository.save(user);
+    public UserResponse updateUser(User user) {
+        // Passwords are never sent to clients, so an update without one keeps the current password
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            userRepository.findById(user.getId()).ifPresent(existing -> user.setPassword(existing.getPassword()));
+        } else {
+            user.setPassword(hash(user.getPassword()));
+        }
+        // Read back through the fetch plan; the merged copy's student is an unloaded proxy
+        return findById(userRepository.save(user).getId());
     }
 
     @Override
@@ -51,8 +82,42 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public boolean authenticate(String username, String password) {
+    public CompletableFuture<Optional<User>> authenticate(String username, String password) {
         Optional<User> user = userRepository.findByUsername(username);
-        return user.isPresent() && user.get().getPassword().equals(password);
+        String stored = user.map(User::getPassword).orElse(unknownUserHash);
+
+        return CompletableFuture.supplyAsync(() -> {
+            if (!matches(password, stored) || user.isEmpty()) {
+                return Optional.empty();
+            }
+            if (!isHashed(stored)) {
+                upgradePassword(user.get(), stored, password);
+            }
+            return user;
+        }, passwordHashExecutor);
+    }
+
+    // Accounts from before hashing, or bulk-loaded ones, keep a plaintext password until their first login
+    private void upgradePassword(User user, String stored, String password) {
+        try {
+            userRepository.replacePassword(user.getId(), stored, passwordEncoder.encode(password));
+        } catch (RuntimeException e) {
+            log.warn("Could not hash the stored password of user {}", user.getId(), e);
+        }
+    }
+
+    private boolean matches(String password, String stored) {
+        if (isHashed(stored)) {
+            return passwordEncoder.matches(password, stored);
+        }
+        return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String hash(String password) {
+        return password == null || isHashed(password) ? password : passwordEncoder.encode(password);
+    }
+
+    private static boolean isHashed(String password) {
+        return BCRYPT_HASH.matcher(password).matches();
     }
 }
@@ -0,0 +1,107 @@
+package edu.icet;
+
+import edu.icet.config.SqlBudgetFilter;
+import edu.icet.repository.ClassRepository;
+import edu.icet.service.AttendanceSummaryService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the SQL statements the hottest read endpoints execute, read from the
+ * {@link SqlBudgetFilter#STATEMENTS_HEADER} header. A roster or page that starts loading per row
+ * shows up here as a count that grows with the fixture.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HotEndpointSqlBudgetTest {
+    private static final int STUDENTS = 40;
+    private static final int SESSIONS = 6;
+    private static final int CLASS_ID = 1;
+    private static final LocalDate TERM_START = LocalDate.of(2024, 1, 8);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClassRepository classRepository;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    // Every student takes the one class and attends every session
+    @BeforeAll
+    void seed() {
+        List<Object[]> students = new ArrayList<>();
+        List<Object[]> enrolments = new ArrayList<>();
+        List<Object[]> attendance = new ArrayList<>();
+        for (int id = 1; id <= STUDENTS; id++) {
+            students.add(new Object[]{id, "First" + id, "Last" + id, id + " Test Street",
+                    Date.valueOf(LocalDate.of(2000, 1, 1)), String.format("%09dV", id), String.format("07%08d", id)});
+            enrolments.add(new Object[]{CLASS_ID, id});
+            for (int session = 0; session < SESSIONS; session++) {
+                attendance.add(new Object[]{(id - 1) * SESSIONS + session + 1, id, CLASS_ID,
+                        Date.valueOf(TERM_START.plusDays(session * 2L)), session % 3 != 0});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)", students);
+        jdbcTemplate.update("INSERT INTO class (id, name, description, schedule, start_date, end_date) VALUES (?, ?, ?, ?, ?, ?)",
+                CLASS_ID, "Class 1", "Test class", "Mon, Wed 10:00-12:00", Date.valueOf(TERM_START), Date.valueOf(TERM_START.plusDays(120)));
+        jdbcTemplate.batchUpdate("INSERT INTO class_student (class_id, student_id) VALUES (?, ?)", enrolments);
+        jdbcTemplate.batchUpdate("INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (?, ?, ?, ?, ?)", attendance);
+        jdbcTemplate.execute("ALTER SEQUENCE student_seq RESTART WITH " + (STUDENTS + 51));
+        jdbcTemplate.execute("ALTER SEQUENCE class_seq RESTART WITH 52");
+        jdbcTemplate.execute("ALTER SEQUENCE attendance_seq RESTART WITH " + (STUDENTS * SESSIONS + 51));
+
+        classRepository.recountSeats();
+        attendanceSummaryService.rebuild();
+    }
+
+    @Test
+    void studentPageRunsOneQuery() throws Exception {
+        assertStatements(1, "/student/students?limit=25");
+        assertStatements(1, "/student/students?after=25&limit=25");
+    }
+
+    @Test
+    void classRosterDoesNotLoadStudentsOneByOne() throws Exception {
+        // Class version and enrolment stamp for the ETag, then the students in one query
+        assertStatements(3, "/classes/" + CLASS_ID + "/students");
+    }
+
+    @Test
+    void attendanceSummaryReadsTheSummaryTable() throws Exception {
+        // An existence check, then one read of the summary rows
+        assertStatements(2, "/attendance/class/" + CLASS_ID + "/percentages");
+        assertStatements(2, "/attendance/student/1/percentage");
+    }
+
+    private void assertStatements(int expected, String uri) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn();
+        String header = result.getResponse().getHeader(SqlBudgetFilter.STATEMENTS_HEADER);
+        assertTrue(header != null, "No " + SqlBudgetFilter.STATEMENTS_HEADER + " header on " + uri);
+        assertEquals(expected, Integer.parseInt(header), "SQL statements for " + uri);
+    }
+}
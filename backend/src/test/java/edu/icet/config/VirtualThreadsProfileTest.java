@@ -0,0 +1,26 @@
+package edu.icet.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The virtual-threads profile puts the pool behind {@link AdmissionControlledDataSource}; the application must
+ * still start and reach the database through it.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:virtual-threads;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE")
+@ActiveProfiles({"test", "virtual-threads"})
+class VirtualThreadsProfileTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void queriesPassTheAdmissionLimiter() {
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+    }
+}
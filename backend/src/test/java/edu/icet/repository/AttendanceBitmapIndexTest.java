@@ -0,0 +1,87 @@
+package edu.icet.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AttendanceBitmapIndexTest {
+    private static final int CLASS_ID = 1;
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 8);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AttendanceArchive attendanceArchive = mock(AttendanceArchive.class);
+
+    @BeforeEach
+    void setUp() {
+        when(attendanceArchive.stream(null, null, null)).thenAnswer(call -> Stream.empty());
+    }
+
+    @Test
+    void aWriteCommittedWhileWarmingIsReplayed() {
+        AttendanceBitmapIndex index = new AttendanceBitmapIndex(jdbcTemplate, attendanceArchive, true, 1 << 20);
+        // Student 2 is marked present after the table was read but before the warm-up ends
+        streamRows(List.of(new int[]{1, 0}, new int[]{2, 0}),
+                () -> index.record(CLASS_ID, Date.valueOf(DAY), 2, true));
+
+        index.warm();
+
+        assertTrue(index.isReady());
+        assertArrayEquals(new int[]{1}, index.absentOn(CLASS_ID, DAY));
+    }
+
+    @Test
+    void warmingStopsAsSoonAsTheBudgetIsPassed() {
+        AttendanceBitmapIndex index = new AttendanceBitmapIndex(jdbcTemplate, attendanceArchive, true, 64);
+        int[] rowsRead = new int[1];
+        doAnswer(call -> {
+            RowCallbackHandler handler = call.getArgument(1);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getInt("class_id")).thenAnswer(c -> rowsRead[0]);
+            when(rs.getDate("date")).thenReturn(Date.valueOf(DAY));
+            when(rs.getInt("student_id")).thenReturn(1);
+            when(rs.getBoolean("present")).thenReturn(true);
+            for (; rowsRead[0] < 10_000; rowsRead[0]++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        index.warm();
+
+        assertFalse(index.isReady());
+        assertTrue(rowsRead[0] < 10, "Read " + rowsRead[0] + " rows before giving up");
+    }
+
+    // Rows of {student id, present} for the one session; the callback runs once they have all been read
+    private void streamRows(List<int[]> rows, Runnable afterRead) {
+        doAnswer(call -> {
+            RowCallbackHandler handler = call.getArgument(1);
+            for (int[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getInt("class_id")).thenReturn(CLASS_ID);
+                when(rs.getDate("date")).thenReturn(Date.valueOf(DAY));
+                when(rs.getInt("student_id")).thenReturn(row[0]);
+                when(rs.getBoolean("present")).thenReturn(row[1] == 1);
+                handler.processRow(rs);
+            }
+            afterRead.run();
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,74 @@
+package edu.icet.repository;
+
+import edu.icet.dto.AttendanceDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:attendance-repository;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE")
+@ActiveProfiles("test")
+class AttendanceRepositoryTest {
+    private static final int CLASS_ID = 1;
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 8);
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The real one works on MySQL's table-backed sequences, which H2 doesn't have
+    @MockBean
+    private IdBlockAllocator idBlockAllocator;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM attendance");
+        jdbcTemplate.update("DELETE FROM class");
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("INSERT INTO class (id, name, description, schedule, start_date, end_date) VALUES (?, ?, ?, ?, ?, ?)",
+                CLASS_ID, "Class 1", "Test class", "Mon 10:00-12:00", Date.valueOf(DAY), Date.valueOf(DAY.plusDays(120)));
+        for (int id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    id, "First" + id, "Last" + id, "Street", Date.valueOf(LocalDate.of(2000, 1, 1)), id + "V", "07" + id);
+        }
+        // Student 1 was marked absent, student 2 present, student 3 has no row yet
+        jdbcTemplate.update("INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (1, 1, ?, ?, FALSE)", CLASS_ID, Date.valueOf(DAY));
+        jdbcTemplate.update("INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (2, 2, ?, ?, TRUE)", CLASS_ID, Date.valueOf(DAY));
+    }
+
+    @Test
+    void markPresentReportsOnlyRealChanges() {
+        when(idBlockAllocator.reserve(eq("attendance"), anyInt())).thenReturn(100);
+
+        List<AttendanceDelta> deltas = attendanceRepository.markPresent(CLASS_ID, DAY, List.of(3, 1, 2, 3));
+
+        assertEquals(List.of(new AttendanceDelta(1, CLASS_ID, 1, 0), new AttendanceDelta(3, CLASS_ID, 1, 1)), deltas);
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance WHERE present = TRUE", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance", Integer.class));
+
+        assertEquals(List.of(), attendanceRepository.markPresent(CLASS_ID, DAY, List.of(1, 2, 3)));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance", Integer.class));
+    }
+
+    @Test
+    void aSecondRowForTheSameSessionIsRefused() {
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (3, 1, ?, ?, TRUE)", CLASS_ID, Date.valueOf(DAY)));
+    }
+}
@@ -0,0 +1,85 @@
+package edu.icet.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:attendance-service;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE")
+@ActiveProfiles("test")
+class AttendanceServiceTest {
+    private static final int CLASS_ID = 1;
+    private static final int STUDENTS = 20;
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 8);
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM attendance_summary");
+        jdbcTemplate.update("DELETE FROM attendance");
+        jdbcTemplate.update("DELETE FROM class");
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("INSERT INTO class (id, name, description, schedule, start_date, end_date) VALUES (?, ?, ?, ?, ?, ?)",
+                CLASS_ID, "Class 1", "Test class", "Mon 10:00-12:00", Date.valueOf(DAY), Date.valueOf(DAY.plusDays(120)));
+        for (int id = 1; id <= STUDENTS; id++) {
+            jdbcTemplate.update("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    id, "First" + id, "Last" + id, "Street", Date.valueOf(LocalDate.of(2000, 1, 1)), id + "V", "07" + id);
+        }
+    }
+
+    // Both find the session empty; whichever loses must not leave a second row or a second count behind
+    @Test
+    void concurrentMarksOfAnEmptySessionCountEachStudentOnce() throws Exception {
+        Map<Integer, Boolean> everyonePresent = new HashMap<>();
+        for (int id = 1; id <= STUDENTS; id++) {
+            everyonePresent.put(id, true);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> marks = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                marks.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        attendanceService.markAttendance(CLASS_ID, Date.valueOf(DAY), everyonePresent);
+                    } catch (RuntimeException e) {
+                        // Refused by the lock or uk_attendance_session, and rolled back
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> mark : marks) {
+                mark.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(STUDENTS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance", Integer.class));
+        assertEquals(STUDENTS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance_summary WHERE total_count = 1 AND present_count = 1", Integer.class));
+        assertEquals(STUDENTS, jdbcTemplate.queryForObject("SELECT COALESCE(SUM(total_count), 0) FROM attendance_summary", Integer.class));
+    }
+}
@@ -0,0 +1,137 @@
+package edu.icet.service;
+
+import edu.icet.config.CatalogCache;
+import edu.icet.config.PendingRequestMigration;
+import edu.icet.repository.ClassRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:class-request-service;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE")
+@ActiveProfiles("test")
+class ClassRequestServiceTest {
+    private static final int CLASS_ID = 1;
+    private static final int SEATS = 5;
+    private static final int STUDENTS = 40;
+
+    @Autowired
+    private ClassRequestService classRequestService;
+
+    @Autowired
+    private PendingRequestMigration pendingRequestMigration;
+
+    @Autowired
+    private ClassRepository classRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM class_request");
+        jdbcTemplate.update("DELETE FROM class_student");
+        jdbcTemplate.update("DELETE FROM class");
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("INSERT INTO class (id, name, description, schedule, start_date, end_date, max_students) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                CLASS_ID, "Class 1", "Test class", "Mon 10:00-12:00", Date.valueOf(LocalDate.of(2024, 1, 8)), Date.valueOf(LocalDate.of(2024, 5, 8)), SEATS);
+        for (int id = 1; id <= STUDENTS; id++) {
+            jdbcTemplate.update("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    id, "First" + id, "Last" + id, "Street", Date.valueOf(LocalDate.of(2000, 1, 1)), id + "V", "07" + id);
+        }
+        classRepository.recountSeats();
+        catalogCache.evictAll();
+    }
+
+    @Test
+    void aRushOnAFullClassTakesExactlyTheSeatsOnOffer() throws Exception {
+        List<Integer> studentIds = new ArrayList<>();
+        for (int id = 1; id <= STUDENTS; id++) {
+            studentIds.add(id);
+        }
+
+        assertEquals(SEATS, requestConcurrently(studentIds));
+        assertEquals(SEATS, pendingRequests());
+        assertEquals(SEATS, seatsTaken());
+    }
+
+    @Test
+    void concurrentRequestsFromOneStudentLeaveOnePending() throws Exception {
+        assertEquals(1, requestConcurrently(List.of(7, 7, 7, 7, 7, 7, 7, 7)));
+        assertEquals(1, pendingRequests());
+        assertEquals(1, seatsTaken());
+    }
+
+    @Test
+    void migrationRejectsDuplicatePendingRequestsBeforeAddingTheKey() {
+        jdbcTemplate.execute("ALTER TABLE class_request DROP CONSTRAINT uk_class_request_pending");
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int id = 1001; id <= 1003; id++) {
+            jdbcTemplate.update("INSERT INTO class_request (id, student_id, class_id, request_date, status, version) VALUES (?, ?, ?, ?, 'PENDING', 0)",
+                    id, 3, CLASS_ID, now);
+        }
+
+        pendingRequestMigration.migrate();
+
+        assertEquals(List.of(1001), jdbcTemplate.queryForList("SELECT id FROM class_request WHERE status = 'PENDING'", Integer.class));
+        assertEquals(1, seatsTaken());
+        // The key is back, so a second pending request for the pair is refused by the database
+        assertThrows(Exception.class, () -> jdbcTemplate.update(
+                "INSERT INTO class_request (id, student_id, class_id, request_date, status, version) VALUES (1004, 3, ?, ?, 'PENDING', 0)",
+                CLASS_ID, now));
+    }
+
+    // Returns how many of the requests were accepted
+    private int requestConcurrently(List<Integer> studentIds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(studentIds.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> outcomes = new ArrayList<>();
+            for (Integer studentId : studentIds) {
+                outcomes.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        classRequestService.createRequest(studentId, CLASS_ID);
+                        return true;
+                    } catch (IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int accepted = 0;
+            for (Future<Boolean> outcome : outcomes) {
+                accepted += outcome.get() ? 1 : 0;
+            }
+            return accepted;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int pendingRequests() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM class_request WHERE status = 'PENDING'", Integer.class);
+    }
+
+    private int seatsTaken() {
+        return jdbcTemplate.queryForObject("SELECT seats_taken FROM class WHERE id = ?", Integer.class, CLASS_ID);
+    }
+}
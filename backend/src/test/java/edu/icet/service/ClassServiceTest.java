@@ -0,0 +1,87 @@
+package edu.icet.service;
+
+import edu.icet.config.CatalogCache;
+import edu.icet.dto.Class;
+import edu.icet.repository.ClassRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:class-service;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE")
+@ActiveProfiles("test")
+class ClassServiceTest {
+    private static final int CLASS_ID = 1;
+    private static final int STUDENTS = 3;
+
+    @Autowired
+    private ClassService classService;
+
+    @Autowired
+    private ClassRepository classRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM class_student");
+        jdbcTemplate.update("DELETE FROM class");
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("INSERT INTO class (id, name, description, schedule, start_date, end_date, max_students) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                CLASS_ID, "Class 1", "Test class", "Mon 10:00-12:00", Date.valueOf(LocalDate.of(2024, 1, 8)), Date.valueOf(LocalDate.of(2024, 5, 8)), 10);
+        for (int id = 1; id <= STUDENTS; id++) {
+            jdbcTemplate.update("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    id, "First" + id, "Last" + id, "Street", Date.valueOf(LocalDate.of(2000, 1, 1)), id + "V", "07" + id);
+            jdbcTemplate.update("INSERT INTO class_student (class_id, student_id) VALUES (?, ?)", CLASS_ID, id);
+        }
+        classRepository.recountSeats();
+        // The rows above were written around Hibernate
+        catalogCache.evictAll();
+    }
+
+    // The admin form sends only the scalar fields, so the body's roster is always empty
+    @Test
+    void updateKeepsTheRosterAndSeatCount() {
+        Integer version = classRepository.findVersionById(CLASS_ID).orElseThrow();
+
+        Class edit = new Class();
+        edit.setId(CLASS_ID);
+        edit.setName("Renamed");
+        edit.setSchedule("Tue 10:00-12:00");
+        edit.setMaxStudents(20);
+        Class updated = classService.updateClass(edit);
+
+        assertEquals("Renamed", updated.getName());
+        assertEquals(20, updated.getMaxStudents());
+        assertEquals(version + 1, updated.getVersion());
+        assertEquals(STUDENTS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM class_student WHERE class_id = ?", Integer.class, CLASS_ID));
+        assertEquals(STUDENTS, jdbcTemplate.queryForObject("SELECT seats_taken FROM class WHERE id = ?", Integer.class, CLASS_ID));
+    }
+
+    @Test
+    void updateWithAStaleVersionIsRejected() {
+        Integer version = classRepository.findVersionById(CLASS_ID).orElseThrow();
+
+        Class edit = new Class();
+        edit.setId(CLASS_ID);
+        edit.setName("Renamed");
+        edit.setSchedule("Tue 10:00-12:00");
+        edit.setVersion(version - 1);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> classService.updateClass(edit));
+        assertEquals("Class 1", jdbcTemplate.queryForObject("SELECT name FROM class WHERE id = ?", String.class, CLASS_ID));
+    }
+}
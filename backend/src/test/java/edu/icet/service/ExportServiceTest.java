@@ -0,0 +1,95 @@
+package edu.icet.service;
+
+import edu.icet.dto.ExportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:export-service;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE")
+@ActiveProfiles("test")
+class ExportServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 8);
+    private static final Instant REQUESTED = Instant.parse("2024-01-08T10:00:00Z");
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM class_request");
+        jdbcTemplate.update("DELETE FROM attendance");
+        jdbcTemplate.update("DELETE FROM class");
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("INSERT INTO class (id, name, description, schedule, start_date, end_date) VALUES (?, ?, ?, ?, ?, ?)",
+                1, "Class 1", "Test class", "Mon 10:00-12:00", Date.valueOf(DAY), Date.valueOf(DAY.plusDays(120)));
+        for (int id = 1; id <= 2; id++) {
+            jdbcTemplate.update("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    id, "First" + id, "Last" + id, "Street", Date.valueOf(LocalDate.of(2000, 1, 1)), id + "V", "07" + id);
+        }
+    }
+
+    @Test
+    void csvQuotesFieldsWithSeparatorsQuotesAndLineBreaks() throws Exception {
+        insertRejectedRequest(1, 1, "Full, sorry");
+        insertRejectedRequest(2, 2, "Said \"no\"\nthen left");
+
+        String csv = exportToString(out -> exportService.exportClassRequests(ExportFormat.CSV, null, null, null, null, out));
+
+        assertEquals("id,studentId,classId,requestDate,status,responseDate,responseNotes\r\n" +
+                "1,1,1," + REQUESTED + ",REJECTED," + REQUESTED + ",\"Full, sorry\"\r\n" +
+                "2,2,1," + REQUESTED + ",REJECTED," + REQUESTED + ",\"Said \"\"no\"\"\nthen left\"\r\n", csv);
+    }
+
+    @Test
+    void csvLeavesNullsEmpty() throws Exception {
+        jdbcTemplate.update("INSERT INTO class_request (id, student_id, class_id, request_date, status, version) VALUES (1, 1, 1, ?, 'PENDING', 0)",
+                Timestamp.from(REQUESTED));
+
+        String csv = exportToString(out -> exportService.exportClassRequests(ExportFormat.CSV, 1, null, null, null, out));
+
+        assertEquals("id,studentId,classId,requestDate,status,responseDate,responseNotes\r\n" +
+                "1,1,1," + REQUESTED + ",PENDING,,\r\n", csv);
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        jdbcTemplate.update("INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (1, 1, 1, ?, TRUE)", Date.valueOf(DAY));
+        jdbcTemplate.update("INSERT INTO attendance (id, student_id, class_id, date, present) VALUES (2, 2, 1, ?, FALSE)", Date.valueOf(DAY));
+
+        String ndjson = exportToString(out -> exportService.exportAttendance(ExportFormat.NDJSON, 1, null, null, out));
+
+        assertEquals("{\"id\":1,\"studentId\":1,\"classId\":1,\"date\":\"2024-01-08\",\"present\":true}\n" +
+                "{\"id\":2,\"studentId\":2,\"classId\":1,\"date\":\"2024-01-08\",\"present\":false}\n", ndjson);
+    }
+
+    private void insertRejectedRequest(int id, int studentId, String notes) {
+        jdbcTemplate.update("INSERT INTO class_request (id, student_id, class_id, request_date, status, response_date, response_notes, version) " +
+                "VALUES (?, ?, 1, ?, 'REJECTED', ?, ?, 0)", id, studentId, Timestamp.from(REQUESTED), Timestamp.from(REQUESTED), notes);
+    }
+
+    private static String exportToString(Export export) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long writeTo(ByteArrayOutputStream out) throws Exception;
+    }
+}
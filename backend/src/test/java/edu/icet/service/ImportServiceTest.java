@@ -0,0 +1,112 @@
+package edu.icet.service;
+
+import edu.icet.dto.ImportReport;
+import edu.icet.repository.AttendanceArchive;
+import edu.icet.repository.IdBlockAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.StringReader;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:import-service;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE")
+@ActiveProfiles("test")
+class ImportServiceTest {
+    private static final int CLASS_ID = 1;
+    private static final int ARCHIVED_CLASS_ID = 2;
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 8);
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Table-backed sequences are MySQL only
+    @MockBean
+    private IdBlockAllocator idBlockAllocator;
+
+    @MockBean
+    private AttendanceArchive attendanceArchive;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM attendance_summary");
+        jdbcTemplate.update("DELETE FROM attendance");
+        jdbcTemplate.update("DELETE FROM class");
+        jdbcTemplate.update("DELETE FROM student");
+        for (int id : new int[]{CLASS_ID, ARCHIVED_CLASS_ID}) {
+            jdbcTemplate.update("INSERT INTO class (id, name, description, schedule, start_date, end_date) VALUES (?, ?, ?, ?, ?, ?)",
+                    id, "Class " + id, "Test class", "Mon 10:00-12:00", Date.valueOf(DAY), Date.valueOf(DAY.plusDays(120)));
+        }
+        for (int id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO student (id, f_name, l_name, address, dob, nic, contact) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    id, "First" + id, "Last" + id, "Street", Date.valueOf(LocalDate.of(2000, 1, 1)), id + "V", "07" + id);
+        }
+
+        AtomicInteger nextId = new AtomicInteger(100);
+        when(idBlockAllocator.reserve(eq("attendance"), anyInt())).thenAnswer(call -> nextId.getAndAdd(call.getArgument(1)));
+        when(attendanceArchive.isArchived(ARCHIVED_CLASS_ID)).thenReturn(true);
+    }
+
+    @Test
+    void importingAFileTwiceChangesNothing() throws Exception {
+        String csv = """
+                studentId,classId,date,present
+                1,1,2024-01-08,yes
+                2,1,2024-01-08,no
+                3,1,2024-01-08,yes
+                """;
+        importService.importAttendance(new StringReader(csv));
+        importService.importAttendance(new StringReader(csv));
+
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT SUM(total_count) FROM attendance_summary", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT SUM(present_count) FROM attendance_summary", Integer.class));
+    }
+
+    @Test
+    void aRowForARecordedSessionUpdatesIt() throws Exception {
+        importService.importAttendance(new StringReader("""
+                studentId,classId,date,present
+                1,1,2024-01-08,no
+                1,1,2024-01-10,no
+                """));
+        importService.importAttendance(new StringReader("""
+                studentId,classId,date,present,notes
+                1,1,2024-01-08,no,late
+                1,1,2024-01-08,yes,
+                """));
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance WHERE present = TRUE", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT total_count FROM attendance_summary WHERE student_id = 1", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT present_count FROM attendance_summary WHERE student_id = 1", Integer.class));
+    }
+
+    @Test
+    void rowsForArchivedClassesAreRejected() throws Exception {
+        ImportReport report = importService.importAttendance(new StringReader("""
+                studentId,classId,date,present
+                1,1,2024-01-08,yes
+                1,2,2024-01-08,yes
+                """));
+
+        assertEquals(1, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(2, report.errors().get(0).row());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance WHERE class_id = ?", Integer.class, ARCHIVED_CLASS_ID));
+    }
+}
@@ -45,6 +45,7 @@ const auth = {
         this.userId = null;
         this.studentId = null;
         localStorage.removeItem('auth');
+        localStorage.removeItem('token');
     },
 
     redirectBasedOnRole() {
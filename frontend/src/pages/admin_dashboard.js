@@ -130,20 +130,24 @@ function showSuccess(message) {
 async function loadStudents() {
     try {
         showLoading('studentsTableContainer', 'Loading students data...');
-        const response = await fetch(`${API_BASE_URL}/student/students`);
-        
-        if (!response.ok) {
-            throw new Error(`Failed to load students: ${response.status}`);
-        }
-        
-        students = await response.json();
-        
-        if (!students) {
-            students = [];
-            console.warn('No students data received from API');
-        }
+        students = [];
+        let cursor = 0;
+
+        // Walk the keyset-paginated listing, rendering as each page arrives
+        do {
+            const response = await fetch(`${API_BASE_URL}/student/students?after=${cursor}&limit=200&fields=fName,lName,contact`);
 
-        updateStudentsTable();
+            if (!response.ok) {
+                throw new Error(`Failed to load students: ${response.status}`);
+            }
+
+            const page = await response.json();
+            students = students.concat(page.items || []);
+            cursor = page.nextCursor;
+
+            updateStudentsTable();
+            hideLoading('studentsTableContainer');
+        } while (cursor);
         console.log(`Loaded ${students.length} students`);
 
         hideLoading('studentsTableContainer');
@@ -218,13 +222,8 @@ async function viewStudentDetails(studentId) {
         }
 
         let profilePicUrl = '../../public/profile-pic.png';
-        if (student.profilePic) {
-            try {
-                const blob = new Blob([new Uint8Array(student.profilePic)], {type: 'image/png'});
-                profilePicUrl = URL.createObjectURL(blob);
-            } catch (e) {
-                console.error('Error processing profile pic:', e);
-            }
+        if (student.profilePicHash) {
+            profilePicUrl = `${API_BASE_URL}/student/students/${student.id}/picture`;
         }
 
         const modalHTML = `
@@ -314,13 +313,8 @@ async function editStudent(studentId) {
         const student = await response.json();
 
         let profilePicUrl = '../../public/profile-pic.png'; // Default
-        if (student.profilePic) {
-            try {
-                const blob = new Blob([new Uint8Array(student.profilePic)], {type: 'image/png'});
-                profilePicUrl = URL.createObjectURL(blob);
-            } catch (e) {
-                console.error('Error processing profile pic:', e);
-            }
+        if (student.profilePicHash) {
+            profilePicUrl = `${API_BASE_URL}/student/students/${student.id}/picture`;
         }
 
         const modalHTML = `
@@ -34,6 +34,7 @@ async function login() {
             return;
         }
 
+        localStorage.setItem('token', data.token);
         window.auth.setAuth({
             role: data.role,
             userId: data.userId,
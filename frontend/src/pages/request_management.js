@@ -14,10 +14,18 @@ let students = [];
 let requests = [];
 let selectedRequests = [];
 
+let reloadTimer = null;
+
 document.addEventListener('DOMContentLoaded', function () {
     loadClasses();
     loadStudents();
     loadRequests();
+
+    // Reload when requests change elsewhere; a burst of events (e.g. a bulk approval) causes one reload
+    ApiService.subscribeToChanges({topics: ['requests']}, () => {
+        clearTimeout(reloadTimer);
+        reloadTimer = setTimeout(loadRequests, 300);
+    });
 });
 
 async function loadClasses() {
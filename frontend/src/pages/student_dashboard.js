@@ -33,8 +33,26 @@ document.addEventListener('DOMContentLoaded', async function () {
         console.error('Failed to load student dashboard:', error);
         showError('Error loading your dashboard data. Please try refreshing the page.');
     }
+
+    subscribeToOwnChanges(auth.studentId);
 });
 
+// Refreshes only the sections an event touches: request decisions and enrolments change the class lists,
+// attendance marks change the history and the percentages shown with enrolled classes
+function subscribeToOwnChanges(studentId) {
+    ApiService.subscribeToChanges({topics: ['requests', 'enrolment', 'attendance'], studentId}, (type) => {
+        if (type === 'attendance.marked') {
+            loadAttendanceHistory(studentId);
+            loadEnrolledClasses(studentId);
+        } else if (type === 'resync') {
+            loadStudentData(studentId);
+        } else {
+            loadEnrolledClasses(studentId);
+            loadAvailableClasses(studentId);
+        }
+    });
+}
+
 async function loadStudentData(studentId) {
     try {
         showLoading('dashboardContent', 'Loading dashboard data...');
@@ -153,9 +171,8 @@ function showError(message) {
 async function loadStudentProfile() {
     try {
         let profilePicUrl = '../../public/profile-pic.png';
-        if (currentStudent.profilePic) {
-            const blob = new Blob([new Uint8Array(currentStudent.profilePic)], {type: 'image/png'});
-            profilePicUrl = URL.createObjectURL(blob);
+        if (currentStudent.profilePicHash) {
+            profilePicUrl = `${API_BASE_URL}/student/students/${currentStudent.id}/picture`;
         }
 
         const firstName = currentStudent.fName || currentStudent.firstName || 'Unknown';
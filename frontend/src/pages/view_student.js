@@ -35,8 +35,8 @@ async function loadProfile() {
         const student = await ApiService.getStudent(studentId);
         
         if (student) {
-            if (student.profilePic) {
-                document.getElementById('profilePhotoCard').src = `data:image/jpeg;base64,${student.profilePic}`;
+            if (student.profilePicHash) {
+                document.getElementById('profilePhotoCard').src = `${API_BASE_URL}/student/students/${student.id}/picture`;
             } else {
                 document.getElementById('profilePhotoCard').src = '../../public/profile-pic.png';
             }
@@ -77,8 +77,8 @@ function loadStudents() {
         
         const firstName = student.fName || student.firstName || '';
         const lastName = student.lName || student.lastName || '';
-        const profilePicSrc = student.profilePic ? 
-            `data:image/jpeg;base64,${student.profilePic}` : 
+        const profilePicSrc = student.profilePicHash ? 
+            `${API_BASE_URL}/student/students/${student.id}/picture` : 
             '../../public/profile-pic.png';
 
         row.innerHTML = `
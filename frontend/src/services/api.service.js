@@ -115,6 +115,23 @@ class ApiService {
         return this.put(`/requests/${requestId}/reject`, {});
     }
 
+    /**
+     * Opens the server's change feed and calls onChange(type, data) for each event, and with type 'resync'
+     * when the client missed events and should reload. Filter: {topics: ['requests'], studentId, classId}.
+     * EventSource reconnects on its own; returns a function that closes the feed.
+     */
+    static subscribeToChanges(filter, onChange) {
+        const params = new URLSearchParams();
+        if (filter.topics) params.set('topics', filter.topics.join(','));
+        if (filter.studentId) params.set('studentId', filter.studentId);
+        if (filter.classId) params.set('classId', filter.classId);
+
+        const source = new EventSource(`${API_BASE_URL}/events?${params}`, {withCredentials: true});
+        ['request.created', 'request.approved', 'request.rejected', 'attendance.marked', 'enrolment.changed', 'resync']
+            .forEach(type => source.addEventListener(type, event => onChange(type, JSON.parse(event.data))));
+        return () => source.close();
+    }
+
     static async getAttendance(classId) {
         return this.get(`/attendance/class/${classId}`);
     }